@@ -0,0 +1,137 @@
+/* ===================================================================== *
+ *  file: org/worldcraft/dominioncraft/client/ClientClaimMap.java        *
+ *  desc: клиентская копия карты клеймов вокруг игрока                   *
+ * ===================================================================== */
+package org.worldcraft.dominioncraft.client;
+
+import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.minecraft.client.Minecraft;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.world.level.ChunkPos;
+import org.slf4j.Logger;
+import org.worldcraft.dominioncraft.Dominioncraft;
+import org.worldcraft.dominioncraft.hud.ClaimProtocol;
+
+/**
+ * Регионы карты клеймов, присланные сервером ({@link ClaimProtocol}).
+ * Позволяет {@link HudOverlay} определять территорию и PvP чанка каждый
+ * кадр без запроса к серверу. Все данные — только на клиентском потоке.
+ */
+public final class ClientClaimMap {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private static final int SHIFT = 5;                 // = ClaimGrid.TILE_SHIFT
+    private static final int MASK  = (1 << SHIFT) - 1;
+
+    /** Регион 32×32: handle + 1 (0 — дикие земли) и флаги чанков. */
+    private static final class Tile {
+        final int[]  handles = new int[1 << (SHIFT * 2)];
+        final byte[] flags   = new byte[1 << (SHIFT * 2)];
+    }
+
+    private record TownInfo(String name, boolean pvp) {}
+
+    private static final Long2ObjectOpenHashMap<Tile> TILES = new Long2ObjectOpenHashMap<>();
+    private static final Int2ObjectOpenHashMap<TownInfo> TOWNS = new Int2ObjectOpenHashMap<>();
+    private static boolean warnedVersion = false;
+
+    private ClientClaimMap() {}
+
+    static void register() {
+        ClientPlayNetworking.registerGlobalReceiver(
+                Dominioncraft.CLAIMS_PACKET,
+                (client, handler, buf, responder) -> {
+                    FriendlyByteBuf copy = new FriendlyByteBuf(buf.copy());   // buf освобождается после возврата
+                    client.execute(() -> apply(copy));
+                });
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) ->
+                client.execute(ClientClaimMap::clear));
+    }
+
+    /* ───────────────────────── запросы ───────────────────────── */
+
+    /** handle владельца чанка или -1. */
+    private static int handleAt(long chunkKey) {
+        int cx = ChunkPos.getX(chunkKey), cz = ChunkPos.getZ(chunkKey);
+        Tile t = TILES.get(ChunkPos.asLong(cx >> SHIFT, cz >> SHIFT));
+        return t == null ? -1 : t.handles[((cz & MASK) << SHIFT) | (cx & MASK)] - 1;
+    }
+
+    /** Название города‑владельца или {@code null} — дикие земли. */
+    public static String territory(long chunkKey) {
+        int h = handleAt(chunkKey);
+        if (h < 0) return null;
+        TownInfo info = TOWNS.get(h);
+        return info == null ? "…" : info.name();
+    }
+
+    /** PvP в чанке: override чанка, иначе флаг города; в диких землях включён. */
+    public static boolean isPvp(long chunkKey) {
+        int cx = ChunkPos.getX(chunkKey), cz = ChunkPos.getZ(chunkKey);
+        Tile t = TILES.get(ChunkPos.asLong(cx >> SHIFT, cz >> SHIFT));
+        int i = ((cz & MASK) << SHIFT) | (cx & MASK);
+        if (t == null || t.handles[i] == 0) return true;
+
+        int flags = t.flags[i];
+        if ((flags & ClaimProtocol.CHUNK_PVP_SET) != 0) return (flags & ClaimProtocol.CHUNK_PVP) != 0;
+        TownInfo info = TOWNS.get(t.handles[i] - 1);
+        return info != null && info.pvp();
+    }
+
+    /* ───────────────────────── пакет ───────────────────────── */
+
+    private static void apply(FriendlyByteBuf buf) {
+        try {
+            int version = buf.readUnsignedByte();
+            if (version != ClaimProtocol.VERSION) {
+                if (!warnedVersion) {
+                    warnedVersion = true;
+                    LOGGER.warn("[DominionCraft] Протокол карты клеймов v{} не поддерживается (ожидался v{})",
+                            version, ClaimProtocol.VERSION);
+                }
+                return;
+            }
+            while (buf.isReadable()) {
+                switch (buf.readUnsignedByte()) {
+                    case ClaimProtocol.OP_RESET -> clear();
+                    case ClaimProtocol.OP_TILE  -> readTile(buf);
+                    case ClaimProtocol.OP_DROP  -> TILES.remove(buf.readLong());
+                    case ClaimProtocol.OP_TOWN  -> TOWNS.put(buf.readVarInt(),
+                            new TownInfo(buf.readUtf(), buf.readBoolean()));
+                    default -> {
+                        LOGGER.warn("[DominionCraft] Неизвестная операция в пакете карты клеймов");
+                        return;
+                    }
+                }
+            }
+        } finally {
+            buf.release();
+        }
+    }
+
+    private static void readTile(FriendlyByteBuf buf) {
+        long region = buf.readLong();
+        int n = buf.readVarInt();
+        if (n == 0) {
+            TILES.remove(region);
+            return;
+        }
+        Tile t = new Tile();
+        for (int k = 0; k < n; k++) {
+            int i = buf.readShort();
+            t.handles[i] = buf.readVarInt() + 1;
+            t.flags[i]   = buf.readByte();
+        }
+        TILES.put(region, t);
+    }
+
+    private static void clear() {
+        TILES.clear();
+        TOWNS.clear();
+    }
+}
@@ -1,59 +1,87 @@
 /* ===================================================================== *
  *  file: org/worldcraft/dominioncraft/client/HudClient.java             *
- *  desc: клиентский приёмник HUD‑пакета (7 полей)                       *
+ *  desc: клиентский приёмник HUD‑пакета (дельты + словарь строк)        *
  * ===================================================================== */
 package org.worldcraft.dominioncraft.client;
 
+import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 
 import net.minecraft.client.Minecraft;
 import net.minecraft.network.FriendlyByteBuf;
 
+import org.slf4j.Logger;
 import org.worldcraft.dominioncraft.Dominioncraft;
+import org.worldcraft.dominioncraft.hud.HudProtocol;
 
 /**
- * Получает пакет {@code hud_update} от сервера и кеширует значения,
- * которые читает {@link HudOverlay} при отрисовке.
+ * Получает пакет {@code hud} от сервера и кеширует значения,
+ * которые читает {@link HudOverlay} при отрисовке. Формат — {@link HudProtocol}.
  */
 public final class HudClient implements ClientModInitializer {
 
-    /* ── публичные кэш‑поля, читаются в HudOverlay ── */
-    public static String territory   = "…";
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    /* ── публичные кэш‑поля, читаются в HudOverlay ── */
     public static String town        = "…";
     public static String townRank    = "…";
     public static String mayor       = "…";
     public static String nation      = "…";
     public static String nationRank  = "…";
-    public static boolean chunkPvp   = false;
+
+    /** Словарь строк сервера: номер → строка (только клиентский поток). */
+    private static final Int2ObjectOpenHashMap<String> DICT = new Int2ObjectOpenHashMap<>();
+    private static boolean warnedVersion = false;
 
     @Override
     public void onInitializeClient() {
         ClientPlayNetworking.registerGlobalReceiver(
                 Dominioncraft.HUD_PACKET,
                 (client, handler, buf, responder) -> handle(buf));
+        ClientClaimMap.register();
     }
 
     /* ───────────────────────── handle ───────────────────────── */
     private static void handle(FriendlyByteBuf buf) {
-        /* порядок ДОЛЖЕН совпадать с sendHudUpdate(...) на сервере */
-        final String terr  = buf.readUtf();
-        final String twn   = buf.readUtf();
-        final String tRank = buf.readUtf();
-        final String myr   = buf.readUtf();
-        final String nat   = buf.readUtf();
-        final String nRank = buf.readUtf();
-        final boolean pvp  = buf.readBoolean();
-
-        /* обновляем поля на главном клиентском потоке */
+        /* разбираем на сетевом потоке, применяем на клиентском */
+        final int version = buf.readUnsignedByte();
+        if (version != HudProtocol.VERSION) {
+            if (!warnedVersion) {
+                warnedVersion = true;
+                LOGGER.warn("[DominionCraft] HUD‑протокол сервера v{} не поддерживается (ожидался v{})",
+                        version, HudProtocol.VERSION);
+            }
+            return;
+        }
+        final int mask = buf.readUnsignedByte();
+
+        final int n = buf.readVarInt();
+        final int[] newIds = new int[n];
+        final String[] newStrings = new String[n];
+        for (int i = 0; i < n; i++) {
+            newIds[i] = buf.readVarInt();
+            newStrings[i] = buf.readUtf();
+        }
+
+        final int[] ids = new int[HudProtocol.STRING_FIELDS];
+        for (int i = 0; i < HudProtocol.STRING_FIELDS; i++)
+            if ((mask & (1 << i)) != 0) ids[i] = buf.readVarInt();
+
         Minecraft.getInstance().execute(() -> {
-            territory  = terr;
-            town       = twn;
-            townRank   = tRank;
-            mayor      = myr;
-            nation     = nat;
-            nationRank = nRank;
-            chunkPvp   = pvp;
+            if ((mask & HudProtocol.RESET) != 0) DICT.clear();
+            for (int i = 0; i < n; i++) DICT.put(newIds[i], newStrings[i]);
+
+            if ((mask & HudProtocol.F_TOWN)        != 0) town       = lookup(ids[0]);
+            if ((mask & HudProtocol.F_TOWN_RANK)   != 0) townRank   = lookup(ids[1]);
+            if ((mask & HudProtocol.F_MAYOR)       != 0) mayor      = lookup(ids[2]);
+            if ((mask & HudProtocol.F_NATION)      != 0) nation     = lookup(ids[3]);
+            if ((mask & HudProtocol.F_NATION_RANK) != 0) nationRank = lookup(ids[4]);
         });
     }
+
+    private static String lookup(int id) {
+        return DICT.getOrDefault(id, "…");
+    }
 }
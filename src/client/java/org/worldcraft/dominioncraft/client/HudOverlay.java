@@ -15,7 +15,8 @@ import net.minecraft.network.chat.Component;
 
 /**
  * Рисует информ‑панель Dominion HUD в левом‑верхнем углу.
- * Данные берёт из {@link HudClient} (обновляются сервером каждую секунду).
+ * Город и нацию берёт из {@link HudClient} (сервер шлёт изменения), а
+ * территорию и PvP чанка — из {@link ClientClaimMap} по позиции игрока.
  */
 public final class HudOverlay implements ClientModInitializer {
 
@@ -50,14 +51,17 @@ public final class HudOverlay implements ClientModInitializer {
 
         int dy = y + 22;   // первая строка инфо
 
-        drawLine(g, font, "Территория:",   HudClient.territory,   x, dy); dy += 13;
+        long chunk = mc.player.chunkPosition().toLong();
+        String territory = ClientClaimMap.territory(chunk);
+
+        drawLine(g, font, "Территория:",   territory == null ? "Дикие земли" : territory, x, dy); dy += 13;
         drawLine(g, font, "Ваш город:",    HudClient.town,        x, dy); dy += 13;
         drawLine(g, font, "Ранг (город):", HudClient.townRank,    x, dy); dy += 13;
         drawLine(g, font, "Мэр:",          HudClient.mayor,       x, dy); dy += 13;
         drawLine(g, font, "Нация:",        HudClient.nation,      x, dy); dy += 13;
         drawLine(g, font, "Ранг (нация):", HudClient.nationRank,  x, dy); dy += 13;
         drawLine(g, font, "PvP чанка:",
-                HudClient.chunkPvp ? ChatFormatting.GREEN + "ON"
+                ClientClaimMap.isPvp(chunk) ? ChatFormatting.GREEN + "ON"
                         : ChatFormatting.RED   + "OFF",
                 x, dy);
     }
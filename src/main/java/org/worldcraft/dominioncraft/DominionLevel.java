@@ -0,0 +1,19 @@
+package org.worldcraft.dominioncraft;
+
+import org.worldcraft.dominioncraft.nation.NationData;
+import org.worldcraft.dominioncraft.town.TownData;
+
+/**
+ * Duck‑интерфейс, который {@code ServerLevelMixin} добавляет к
+ * {@link net.minecraft.server.level.ServerLevel}: уже найденные
+ * {@link TownData}/{@link NationData} хранятся прямо в уровне, чтобы горячие
+ * пути не ходили в {@code DimensionDataStorage} по строковому ключу.
+ */
+public interface DominionLevel {
+
+    TownData   dominioncraft$getTownData();
+    void       dominioncraft$setTownData(TownData data);
+
+    NationData dominioncraft$getNationData();
+    void       dominioncraft$setNationData(NationData data);
+}
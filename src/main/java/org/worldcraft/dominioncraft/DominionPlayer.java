@@ -0,0 +1,16 @@
+package org.worldcraft.dominioncraft;
+
+import org.worldcraft.dominioncraft.hud.HudState;
+import org.worldcraft.dominioncraft.protection.DecisionCache;
+
+/**
+ * Duck‑интерфейс, который {@code PlayerMixin} добавляет к
+ * {@link net.minecraft.world.entity.player.Player}: личный кэш решений защиты
+ * и состояние HUD.
+ */
+public interface DominionPlayer {
+
+    DecisionCache dominioncraft$getDecisionCache();
+
+    HudState dominioncraft$getHudState();
+}
@@ -1,6 +1,6 @@
 /* ===================================================================== *
  *  file: org/worldcraft/dominioncraft/Dominioncraft.java                *
- *  desc: главный мод‑инишиалайзер + HUD‑синхронизация                    *
+ *  desc: главный мод‑инишиалайзер                                       *
  * ===================================================================== */
 package org.worldcraft.dominioncraft;
 
@@ -10,28 +10,33 @@ import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
-import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
-import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
-import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
 
 /* Mojang / MC */
-import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
-import net.minecraft.server.level.ServerLevel;
-import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.world.level.ChunkPos;
 
 /* Мод: города / нации */
 import org.worldcraft.dominioncraft.bluemap.BlueMapAutoSync;
+import org.worldcraft.dominioncraft.command.DominionCommands;
 import org.worldcraft.dominioncraft.command.TownCommands;
+import org.worldcraft.dominioncraft.hud.ClaimSync;
+import org.worldcraft.dominioncraft.hud.HudSync;
 import org.worldcraft.dominioncraft.nation.*;
+import org.worldcraft.dominioncraft.protection.PermissionTables;
+import org.worldcraft.dominioncraft.storage.SaveQueue;
+import org.worldcraft.dominioncraft.storage.SnapshotService;
+import org.worldcraft.dominioncraft.storage.StorageConfig;
 import org.worldcraft.dominioncraft.town.*;
 
 public class Dominioncraft implements ModInitializer {
 
     /** Канал, по которому сервер шлёт HUD‑обновления клиенту. */
     public static final ResourceLocation HUD_PACKET =
-            new ResourceLocation("dominioncraft", "hud_update");
+            new ResourceLocation("dominioncraft", "hud");
+
+    /** Канал карты клеймов вокруг игрока. */
+    public static final ResourceLocation CLAIMS_PACKET =
+            new ResourceLocation("dominioncraft", "claims");
 
     /* ─────────────────────────── INIT ─────────────────────────── */
     @Override
@@ -42,10 +47,25 @@ public class Dominioncraft implements ModInitializer {
                 (dispatcher, dedicated, env) -> {
                     TownCommands.register(dispatcher);
                     NationCommands.register(dispatcher);
+                    DominionCommands.register(dispatcher);
                 });
 
         /* защита блоков/мобов */
         TownProtectionEvents.register();
+        PermissionTables.register();
+
+        /* снимки данных и отложенное восстановление */
+        SnapshotService.register();
+
+        /* реестр городов: TownData каждого измерения подключаем при загрузке */
+        ServerWorldEvents.LOAD.register((server, level) -> TownData.get(level));
+
+        /* журнал изменений: раз в тик дописываем изменённые города и нации */
+        ServerTickEvents.END_WORLD_TICK.register(level -> {
+            DominionLevel dl = (DominionLevel) level;
+            if (dl.dominioncraft$getTownData() != null)   dl.dominioncraft$getTownData().flushJournal();
+            if (dl.dominioncraft$getNationData() != null) dl.dominioncraft$getNationData().flushJournal();
+        });
 
         /* таймеры нации (выборы / референдум) */
         NationTimers.init();
@@ -54,77 +74,18 @@ public class Dominioncraft implements ModInitializer {
         });
         ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
             BlueMapAutoSync.stop();
+            SaveQueue.flush();              // дописать фоновые сохранения
+            StorageConfig.closeAll();
+            TownRegistry.clear();
         });
 
-        /* HUD: при логине и каждую секунду */
-        ServerPlayConnectionEvents.JOIN.register((handler, sender, srv) ->
-                pushHudToPlayer(handler.getPlayer()));
+        /* ники игроков: общий кэш, заполняется при входе и в фоне */
+        NameCache.register();
 
-        ServerTickEvents.END_SERVER_TICK.register(server -> {
-            if (server.getTickCount() % 20 != 0) return;   // раз в секунду
-            for (ServerPlayer p : server.getPlayerList().getPlayers())
-                pushHudToPlayer(p);
-        });
+        /* HUD: пакет только при изменении данных игрока; карта клеймов вокруг него */
+        HudSync.register();
+        ClaimSync.register();
 
         System.out.println("[DominionCraft] Инициализация завершена.");
     }
-
-    /* ─────────────────────── HUD helper‑методы ─────────────────────── */
-
-    /** Собирает данные и шлёт один HUD‑пакет игроку. */
-    private void pushHudToPlayer(ServerPlayer p) {
-        ServerLevel lvl = p.serverLevel();
-        TownData td = TownData.get(lvl);
-        NationData nd = NationData.get(lvl);
-
-        /* ── территория чанка ── */
-        ChunkPos  pos = new ChunkPos(p.blockPosition());
-        Town      chunkTown = td.getTownByChunk(pos);
-        String    territory = chunkTown == null ? "Дикие земли" : chunkTown.getName();
-        boolean   chunkPvp  = chunkTown == null ? true : chunkTown.isChunkPvp(pos);
-
-        /* ── город игрока ── */
-        Town playerTown = td.getTownOfPlayer(p.getUUID());
-        String townName   = playerTown == null ? "Без города" : playerTown.getName();
-        String townRank   = playerTown == null ? "—"          : playerTown.getRank(p.getUUID()).name();
-        String mayorName  = playerTown == null ? "—"          : playerTown.getMayorName(p.getServer());
-
-        /* ── нация ── */
-        String nationName = "Без нации";
-        String nationRank = "—";
-        if (playerTown != null && playerTown.getNation() != null) {
-            Nation n = nd.get(playerTown.getNation());
-            if (n != null) {
-                nationName = n.getName();
-                NationRank r = n.getRank(p.getUUID());
-                nationRank  = (r == null) ? "—" : r.name();
-            }
-        }
-
-        sendHudUpdate(p,
-                territory, townName, townRank, mayorName,
-                nationName, nationRank, chunkPvp);
-    }
-
-    /** Пакет: territory, town, townRank, mayor, nation, nationRank, pvp */
-    public static void sendHudUpdate(ServerPlayer player,
-                                     String territory,
-                                     String town,
-                                     String townRank,
-                                     String mayor,
-                                     String nation,
-                                     String nationRank,
-                                     boolean chunkPvp) {
-
-        FriendlyByteBuf buf = PacketByteBufs.create();
-        buf.writeUtf(territory);
-        buf.writeUtf(town);
-        buf.writeUtf(townRank);
-        buf.writeUtf(mayor);
-        buf.writeUtf(nation);
-        buf.writeUtf(nationRank);
-        buf.writeBoolean(chunkPvp);
-
-        ServerPlayNetworking.send(player, HUD_PACKET, buf);
-    }
 }
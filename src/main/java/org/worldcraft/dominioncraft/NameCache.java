@@ -0,0 +1,126 @@
+package org.worldcraft.dominioncraft;
+
+import com.mojang.authlib.GameProfile;
+import com.mojang.logging.LogUtils;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import org.slf4j.Logger;
+import org.worldcraft.dominioncraft.hud.HudSync;
+import org.worldcraft.dominioncraft.town.Town;
+import org.worldcraft.dominioncraft.town.TownData;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Общий кэш UUID → ник для всего мода (HUD, /town info, BlueMap,
+ * выборы). LRU на {@link #CAPACITY} записей.
+ *
+ * <p>{@link #get} (горячие пути: HUD, BlueMap) никогда не ждёт
+ * {@code GameProfileCache}: промах сразу возвращает запасную строку и ставит
+ * поиск в фоновый поток; найденный ник пересобирает HUD. {@link #resolve}
+ * (команды, объявления) при промахе читает профиль сразу. Вошедшие игроки
+ * попадают в кэш сразу (заодно подтягиваются ники их сограждан) — так
+ * обновляются и сменённые ники.</p>
+ */
+public final class NameCache {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private static final int CAPACITY = 4096;
+
+    private static final ExecutorService LOOKUP = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "DominionCraft-Names");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Порядок доступа: самый давний — первый на вытеснение. */
+    private static final LinkedHashMap<UUID, String> NAMES = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, String> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+    /** UUID, поиск которых уже стоит в очереди. */
+    private static final Set<UUID> PENDING = new HashSet<>();
+
+    private NameCache() {}
+
+    public static void register() {
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, srv) -> warm(handler.getPlayer()));
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> clear());
+    }
+
+    /** Ник игрока или его UUID строкой, пока ник не найден. */
+    public static String get(MinecraftServer srv, UUID id) {
+        return get(srv, id, id.toString());
+    }
+
+    /** Ник игрока или {@code fallback}, пока ник не найден. */
+    public static String get(MinecraftServer srv, UUID id, String fallback) {
+        synchronized (NAMES) {
+            String name = NAMES.get(id);
+            if (name != null) return name;
+        }
+        request(srv, id);
+        return fallback;
+    }
+
+    /**
+     * Ник игрока с чтением профиля при промахе — для разовых путей
+     * (команды, объявления), где запасная строка вместо ника неуместна.
+     */
+    public static String resolve(MinecraftServer srv, UUID id, String fallback) {
+        synchronized (NAMES) {
+            String name = NAMES.get(id);
+            if (name != null) return name;
+        }
+        String name = srv.getProfileCache().get(id).map(GameProfile::getName).orElse(null);
+        if (name == null) return fallback;
+        synchronized (NAMES) {
+            NAMES.put(id, name);
+        }
+        return name;
+    }
+
+    /** Поставить фоновый поиск ника, если его ещё нет в кэше и в очереди. */
+    public static void request(MinecraftServer srv, UUID id) {
+        synchronized (NAMES) {
+            if (NAMES.containsKey(id) || !PENDING.add(id)) return;
+        }
+        LOOKUP.execute(() -> {
+            String name = null;
+            try {
+                name = srv.getProfileCache().get(id).map(GameProfile::getName).orElse(null);
+            } catch (RuntimeException e) {
+                LOGGER.error("[DominionCraft] Не удалось найти ник для {}", id, e);
+            }
+            synchronized (NAMES) {
+                PENDING.remove(id);
+                if (name != null) NAMES.putIfAbsent(id, name);
+            }
+            /* HUD мог показать запасную строку — пересобрать на серверном потоке */
+            if (name != null) srv.execute(HudSync::namesResolved);
+        });
+    }
+
+    /** Вход игрока: его ник актуален; ники сограждан подтянуть заранее. */
+    private static void warm(ServerPlayer p) {
+        synchronized (NAMES) {
+            NAMES.put(p.getUUID(), p.getGameProfile().getName());
+        }
+        Town t = TownData.get(p.serverLevel()).getTownOfPlayer(p.getUUID());
+        if (t != null) for (UUID member : t.getMembers()) request(p.getServer(), member);
+    }
+
+    private static void clear() {
+        synchronized (NAMES) {
+            NAMES.clear();
+            PENDING.clear();
+        }
+    }
+}
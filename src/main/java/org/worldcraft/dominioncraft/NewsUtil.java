@@ -5,16 +5,15 @@ import net.minecraft.server.MinecraftServer;
 import net.minecraft.network.chat.Component;
 import org.worldcraft.dominioncraft.nation.Nation;
 import org.worldcraft.dominioncraft.town.Town;
-import org.worldcraft.dominioncraft.town.TownData;
+import org.worldcraft.dominioncraft.town.TownRegistry;
 import java.util.UUID;
 
 public final class NewsUtil {
 
     // Оповестить всех членов нации
     public static void broadcastNation(MinecraftServer server, Nation nation, String message) {
-        TownData townData = TownData.get(server.overworld());
         for (UUID townId : nation.getTowns()) {
-            Town town = townData.getTown(townId);
+            Town town = TownRegistry.get(townId);
             if (town != null) {
                 for (UUID uuid : town.getMembers()) {
                     ServerPlayer p = server.getPlayerList().getPlayer(uuid);
@@ -17,12 +17,8 @@ import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.InteractionResultHolder;
-import net.minecraft.world.item.BlockItem;
-import net.minecraft.world.item.HoeItem;
 import net.minecraft.world.item.ItemStack;
-import net.minecraft.world.item.Items;
 import net.minecraft.world.level.ChunkPos;
-import net.minecraft.world.level.block.*;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.player.Player;
@@ -36,9 +32,8 @@ import net.minecraft.world.entity.vehicle.MinecartFurnace;
 import net.minecraft.world.phys.EntityHitResult;
 
 // ─────────────────────── Towny logic ───────────────────────
-import org.worldcraft.dominioncraft.town.Town;
-import org.worldcraft.dominioncraft.town.TownChunk;
-import org.worldcraft.dominioncraft.town.TownData;
+import org.worldcraft.dominioncraft.protection.PermissionTables;
+import org.worldcraft.dominioncraft.protection.ProtectionEngine;
 import org.worldcraft.dominioncraft.town.TownPermission;
 
 public final class TownProtectionEvents {
@@ -56,7 +51,7 @@ public final class TownProtectionEvents {
             BlockState state  = world.getBlockState(pos);
             TownPermission p  = switchBlockPermission(state, player.getItemInHand(hand));
 
-            if (!hasAccess((ServerLevel) world, player, new ChunkPos(pos), p)) {
+            if (!hasAccess((ServerLevel) world, player, ChunkPos.asLong(pos), p)) {
                 deny(player);
                 ((ServerPlayer) player).connection.send(new ClientboundBlockUpdatePacket(pos, state));
                 return InteractionResult.FAIL;
@@ -70,7 +65,7 @@ public final class TownProtectionEvents {
             if (world.isClientSide()) return InteractionResultHolder.pass(stack);
 
             TownPermission p = switchItemPermission(stack);
-            if (!hasAccess((ServerLevel) world, player, new ChunkPos(player.blockPosition()), p)) {
+            if (!hasAccess((ServerLevel) world, player, ChunkPos.asLong(player.blockPosition()), p)) {
                 deny(player);
                 return InteractionResultHolder.fail(stack);
             }
@@ -82,7 +77,7 @@ public final class TownProtectionEvents {
             if (world.isClientSide()) return InteractionResult.PASS;
 
             TownPermission p = switchEntityPermission(entity);
-            if (!hasAccess((ServerLevel) world, player, new ChunkPos(entity.blockPosition()), p)) {
+            if (!hasAccess((ServerLevel) world, player, ChunkPos.asLong(entity.blockPosition()), p)) {
                 deny(player);
                 return InteractionResult.FAIL;
             }
@@ -96,7 +91,7 @@ public final class TownProtectionEvents {
             BlockState state  = world.getBlockState(pos);
             TownPermission p  = isFarmBlock(state) ? TownPermission.FARM : TownPermission.BREAK;
 
-            if (!hasAccess((ServerLevel) world, player, new ChunkPos(pos), p)) {
+            if (!hasAccess((ServerLevel) world, player, ChunkPos.asLong(pos), p)) {
                 deny(player);
                 ((ServerPlayer) player).connection.send(new ClientboundBlockUpdatePacket(pos, state));
                 return InteractionResult.FAIL;
@@ -108,7 +103,7 @@ public final class TownProtectionEvents {
         PlayerBlockBreakEvents.BEFORE.register((world, player, pos, state, be) -> {
             if (world.isClientSide()) return true;
             TownPermission p = isFarmBlock(state) ? TownPermission.FARM : TownPermission.BREAK;
-            return hasAccess((ServerLevel) world, player, new ChunkPos(pos), p);
+            return hasAccess((ServerLevel) world, player, ChunkPos.asLong(pos), p);
         });
 
         /* ───── АТАКА СУЩНОСТИ (животные/рамки — без PvP) ───── */
@@ -117,7 +112,7 @@ public final class TownProtectionEvents {
 
             if (isProtectedEntity(target)
                     && !hasAccess((ServerLevel) world, attacker,
-                    new ChunkPos(target.blockPosition()), TownPermission.ANIMAL)) {
+                    ChunkPos.asLong(target.blockPosition()), TownPermission.ANIMAL)) {
                 deny(attacker);
                 return InteractionResult.FAIL;
             }
@@ -129,13 +124,8 @@ public final class TownProtectionEvents {
     }
 
     // ─────────────────────────── helpers ────────────────────────────
-    private static boolean hasAccess(ServerLevel lvl, Player pl, ChunkPos chunk, TownPermission perm) {
-        TownData data   = TownData.get(lvl);
-        Town town       = data.getTownByChunk(chunk);
-        if (town == null)                           return true; // дикие земли
-        if (town.hasPermission(pl.getUUID(), perm)) return true; // ранговое право
-        TownChunk tc = town.chunk(chunk);
-        return tc != null && tc.playerHas(pl.getUUID(), perm);   // персональный override
+    private static boolean hasAccess(ServerLevel lvl, Player pl, long chunk, TownPermission perm) {
+        return ProtectionEngine.hasAccess(lvl, pl, chunk, perm);
     }
 
     private static void deny(Player p)            { deny(p, "§cНет прав."); }
@@ -143,39 +133,11 @@ public final class TownProtectionEvents {
 
     // ---------- определить нужное PERMISSION по блоку / предмету ----------
     private static TownPermission switchBlockPermission(BlockState st, ItemStack held) {
-        Block b = st.getBlock();
-
-        // контейнеры
-        if (b instanceof ChestBlock || b instanceof BarrelBlock || b instanceof ShulkerBoxBlock
-                || b instanceof EnderChestBlock || b instanceof AbstractFurnaceBlock
-                || b instanceof HopperBlock || b instanceof DispenserBlock) {
-            return TownPermission.CONTAINER;
-        }
-        // фермерство
-        if (isFarmBlock(st)) return TownPermission.FARM;
-
-        // простое взаимодействие
-        if (b instanceof DoorBlock || b instanceof TrapDoorBlock || b instanceof FenceGateBlock
-                || b instanceof LeverBlock || b instanceof ButtonBlock || b instanceof PressurePlateBlock
-                || b instanceof NoteBlock || b instanceof BellBlock || b instanceof RepeaterBlock
-                || b instanceof ComparatorBlock || b instanceof CakeBlock || b instanceof LecternBlock) {
-            return TownPermission.INTERACT;
-        }
-
-        // если в руке блок — BUILD, иначе просто INTERACT
-        return held.getItem() instanceof BlockItem ? TownPermission.BUILD : TownPermission.INTERACT;
+        return PermissionTables.blockUse(st, held);
     }
 
     private static TownPermission switchItemPermission(ItemStack st) {
-        if (st.getItem() instanceof HoeItem || st.is(Items.BONE_MEAL)
-                || (st.getItem() instanceof BlockItem bi && bi.getBlock() instanceof CropBlock)) {
-            return TownPermission.FARM;
-        }
-        if (st.is(Items.WHEAT) || st.is(Items.CARROT) || st.is(Items.POTATO)
-                || st.is(Items.BEETROOT) || st.is(Items.WHEAT_SEEDS)) {
-            return TownPermission.ANIMAL;
-        }
-        return TownPermission.INTERACT;
+        return PermissionTables.itemUse(st);
     }
 
     private static TownPermission switchEntityPermission(Entity e) {
@@ -189,10 +151,7 @@ public final class TownProtectionEvents {
 
     // ---------- util-checks ----------
     private static boolean isFarmBlock(BlockState st) {
-        Block b = st.getBlock();
-        return b instanceof FarmBlock || b instanceof CropBlock
-                || b instanceof StemBlock || b instanceof CocoaBlock
-                || b instanceof SweetBerryBushBlock || b instanceof NetherWartBlock;
+        return PermissionTables.isFarmBlock(st);
     }
 
     private static boolean isProtectedEntity(Entity e) {
@@ -8,9 +8,11 @@ import de.bluecolored.bluemap.api.math.Color;
 import com.flowpowered.math.vector.Vector2d;
 import com.flowpowered.math.vector.Vector3d;
 import de.bluecolored.bluemap.api.math.Shape;
+import it.unimi.dsi.fastutil.longs.LongIterator;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.level.ChunkPos;
+import org.worldcraft.dominioncraft.NameCache;
 import org.worldcraft.dominioncraft.nation.*;
 import org.worldcraft.dominioncraft.town.*;
 
@@ -66,7 +68,7 @@ public final class BlueMapTownMarkers {
                         Color fillC = argb(base, 60);          // ~24 % непрозрачность
 
                         /* внешний контур */
-                        List<Vector2d> border = buildOutline(town);
+                        List<Vector2d> border = buildOutline(td.getClaimGrid(), town);
                         if (border.isEmpty()) return;
 
                         String id = "town-" + town.getId();
@@ -93,8 +95,7 @@ public final class BlueMapTownMarkers {
 
                         /* жители — перевод UUID → ник + сортировка */
                         List<String> residents = town.getMembers().stream()
-                                .map(u -> srv.getProfileCache().get(u)
-                                        .map(gp -> gp.getName()).orElse(u.toString()))
+                                .map(u -> NameCache.get(srv, u))
                                 .sorted(String.CASE_INSENSITIVE_ORDER)
                                 .toList();
 
@@ -116,32 +117,33 @@ public final class BlueMapTownMarkers {
     /* ------------------------------------------------------------------ */
     /*   buildOutline ‑ версия marching squares                           */
     /* ------------------------------------------------------------------ */
-    private static List<Vector2d> buildOutline(Town town) {
+    private static List<Vector2d> buildOutline(ClaimGrid grid, Town town) {
 
-        /* 1) собираем координаты чанков и bbox */
-        Set<Long> occ = new HashSet<>();
+        /* 1) bbox по клеймам; занятость читаем прямо из сетки */
+        int handle = town.getHandle();
         int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
         int minZ = Integer.MAX_VALUE, maxZ = Integer.MIN_VALUE;
 
-        for (TownChunk tc : town.allChunks()) {
-            int cx = tc.getPos().x, cz = tc.getPos().z;
-            occ.add(ChunkPos.asLong(cx, cz));
+        LongIterator it = town.claimKeys().iterator();
+        while (it.hasNext()) {
+            long key = it.nextLong();
+            int cx = ChunkPos.getX(key), cz = ChunkPos.getZ(key);
             if (cx < minX) minX = cx;
             if (cx > maxX) maxX = cx;
             if (cz < minZ) minZ = cz;
             if (cz > maxZ) maxZ = cz;
         }
-        if (occ.isEmpty()) return List.of();
+        if (minX == Integer.MAX_VALUE) return List.of();
 
         /* 2) marching‑squares: бежим по bbox + 1, ищем переходы 0→1 */
         List<Vector2d> points = new ArrayList<>();
         for (int z = minZ - 1; z <= maxZ; z++) {
             for (int x = minX - 1; x <= maxX; x++) {
 
-                boolean a = occ.contains(ChunkPos.asLong(x,     z));
-                boolean b = occ.contains(ChunkPos.asLong(x + 1, z));
-                boolean c = occ.contains(ChunkPos.asLong(x,     z + 1));
-                boolean d = occ.contains(ChunkPos.asLong(x + 1, z + 1));
+                boolean a = grid.get(x,     z)     == handle;
+                boolean b = grid.get(x + 1, z)     == handle;
+                boolean c = grid.get(x,     z + 1) == handle;
+                boolean d = grid.get(x + 1, z + 1) == handle;
 
                 int code = (a ? 1 : 0) | (b ? 2 : 0) | (c ? 4 : 0) | (d ? 8 : 0);
                 switch (code) {
@@ -0,0 +1,70 @@
+/* ===================================================================== *
+ *  file: org/worldcraft/dominioncraft/command/DominionCommands.java     *
+ * ===================================================================== */
+package org.worldcraft.dominioncraft.command;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.suggestion.SuggestionProvider;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.commands.SharedSuggestionProvider;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+import org.worldcraft.dominioncraft.storage.SnapshotService;
+
+import java.util.List;
+
+/** Админ‑команды мода: {@code /dominion snapshot list|restore <имя>}. */
+public final class DominionCommands {
+
+    private DominionCommands() {}
+
+    private static final SuggestionProvider<CommandSourceStack> SNAPSHOT_SUGGEST =
+            (ctx, b) -> SharedSuggestionProvider.suggest(
+                    SnapshotService.list(ctx.getSource().getServer()), b);
+
+    public static void register(CommandDispatcher<CommandSourceStack> d) {
+        d.register(Commands.literal("dominion")
+                .requires(src -> src.hasPermission(4))
+                .then(Commands.literal("snapshot")
+                        .then(Commands.literal("list")
+                                .executes(DominionCommands::snapshotList))
+                        .then(Commands.literal("restore")
+                                .then(Commands.argument("name", StringArgumentType.word())
+                                        .suggests(SNAPSHOT_SUGGEST)
+                                        .executes(DominionCommands::snapshotRestore)))));
+    }
+
+    private static int snapshotList(CommandContext<CommandSourceStack> ctx) {
+        MinecraftServer srv = ctx.getSource().getServer();
+        List<String> names = SnapshotService.list(srv);
+        if (names.isEmpty()) return fail(ctx, "§eСнимков пока нет.");
+
+        StringBuilder sb = new StringBuilder("§6Снимки данных (новые первыми):");
+        for (String n : names)
+            sb.append("\n§e").append(n).append(" §7(").append(SnapshotService.size(srv, n) / 1024).append(" КБ)");
+        success(ctx, sb.toString());
+        return names.size();
+    }
+
+    private static int snapshotRestore(CommandContext<CommandSourceStack> ctx) {
+        String name = StringArgumentType.getString(ctx, "name");
+        if (!SnapshotService.requestRestore(ctx.getSource().getServer(), name))
+            return fail(ctx, "§cСнимок не найден: " + name);
+
+        success(ctx, "§eСнимок §6" + name + " §eбудет восстановлен при следующем запуске сервера."
+                + "\n§7Текущие данные перед этим сохранятся в снимок pre-restore.");
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int fail(CommandContext<CommandSourceStack> ctx, String msg) {
+        ctx.getSource().sendFailure(Component.literal(msg));
+        return 0;
+    }
+    private static void success(CommandContext<CommandSourceStack> ctx, String msg) {
+        ctx.getSource().sendSuccess(() -> Component.literal(msg), false);
+    }
+}
@@ -20,6 +20,7 @@ import net.minecraft.network.chat.Style;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.level.ChunkPos;
+import org.worldcraft.dominioncraft.NameCache;
 import org.worldcraft.dominioncraft.nation.Nation;
 import org.worldcraft.dominioncraft.town.*;
 
@@ -110,7 +111,7 @@ public final class TownCommands {
             return 0;
         }
         // 2) Уникальность имени
-        if (d.getTownByName(name) != null) {
+        if (d.isNameTaken(name)) {
             ctx.getSource().sendFailure(Component.literal("§cГород с таким названием уже существует."));
             return 0;
         }
@@ -174,10 +175,7 @@ public final class TownCommands {
         if (!t.hasPermission(pl.getUUID(), TownPermission.MANAGE_CLAIMS))
             return fail(ctx,"§cНет права клеймить.");
 
-        boolean adjacent = t.allChunks().stream()
-                .map(TownChunk::getPos)
-                .anyMatch(c -> isAdjacent(c,pos));
-        if (!adjacent) return fail(ctx,"§eЧанк должен примыкать к городу.");
+        if (!d.isAdjacentToTown(t,pos)) return fail(ctx,"§eЧанк должен примыкать к городу.");
 
         if (!d.claimChunk(t,pos)) return fail(ctx,"§cЛимит клеймов.");
 
@@ -216,7 +214,7 @@ public final class TownCommands {
             return 0;
         }
         t.setOpen(true);
-        d.setDirty();
+        d.markDirty(t);
         ctx.getSource().sendSuccess(() -> Component.literal("§aГород открыт для вступления!"), false);
         return Command.SINGLE_SUCCESS;
     }
@@ -233,7 +231,7 @@ public final class TownCommands {
             return 0;
         }
         t.setOpen(false);
-        d.setDirty();
+        d.markDirty(t);
         ctx.getSource().sendSuccess(() -> Component.literal("§cГород закрыт!"), false);
         return Command.SINGLE_SUCCESS;
     }
@@ -256,7 +254,7 @@ public final class TownCommands {
             return 0;
         }
         t.addMember(p.getUUID(), TownRank.RECRUIT);
-        d.setDirty();
+        d.markDirty(t);
         ctx.getSource().sendSuccess(() -> Component.literal("§aВы вступили в город §e" + t.getName()), false);
         return Command.SINGLE_SUCCESS;
     }
@@ -274,16 +272,13 @@ public final class TownCommands {
 
         StringBuilder sb = new StringBuilder();
         sb.append("§6==========[ §eГород: §f").append(t.getName()).append(" §6]==========\n");
-        sb.append("§7Мэр: §b").append(t.getMayorName(ctx.getSource().getServer())).append("\n");
+        sb.append("§7Мэр: §b").append(NameCache.resolve(ctx.getSource().getServer(), t.getMayor(), t.getMayor().toString())).append("\n");
 
         // Список жителей (до 10, остальные "...и ещё N")
         int membersCount = t.getMembers().size();
         String residents = t.getMembers().stream()
                 .limit(10)
-                .map(uuid -> {
-                    var profile = ctx.getSource().getServer().getProfileCache().get(uuid);
-                    return profile.map(com.mojang.authlib.GameProfile::getName).orElse("???");
-                })
+                .map(uuid -> NameCache.resolve(ctx.getSource().getServer(), uuid, "???"))
                 .reduce((a, b) -> a + "§7, §a" + b).orElse("§7-");
 
         if (membersCount > 10) {
@@ -309,18 +304,19 @@ public final class TownCommands {
         if (assistants > 0) {
             String assistantNames = t.getMembers().stream()
                     .filter(uuid -> t.getRank(uuid) == TownRank.ASSISTANT)
-                    .map(uuid -> ctx.getSource().getServer().getProfileCache().get(uuid)
-                            .map(com.mojang.authlib.GameProfile::getName).orElse("???"))
+                    .map(uuid -> NameCache.resolve(ctx.getSource().getServer(), uuid, "???"))
                     .reduce((a, b) -> a + "§7, §b" + b).orElse("");
             sb.append("§7Помощники: §b").append(assistantNames).append("\n");
         }
 
         // Краткая строка о клейме где стоит игрок
-        TownChunk chunk = t.chunk(pos);
-        if (chunk != null) {
+        if (t.owns(pos)) {
+            TownChunk chunk = t.chunk(pos);   // null — без override'ов
+            Boolean pvp  = chunk == null ? null : chunk.getPvp();
+            Boolean expl = chunk == null ? null : chunk.getExplosion();
             sb.append("§7[Этот чанк: ");
-            sb.append("PvP: ").append(chunk.getPvp() != null ? (chunk.getPvp() ? "§cON" : "§aOFF") : "§7наследует город").append(" | ");
-            sb.append("Взрывы: ").append(chunk.getExplosion() != null ? (chunk.getExplosion() ? "§cON" : "§aOFF") : "§7наследует город");
+            sb.append("PvP: ").append(pvp != null ? (pvp ? "§cON" : "§aOFF") : "§7наследует город").append(" | ");
+            sb.append("Взрывы: ").append(expl != null ? (expl ? "§cON" : "§aOFF") : "§7наследует город");
             sb.append("]\n");
         }
 
@@ -406,7 +402,7 @@ public final class TownCommands {
             return 0;
 
         t.addInvite(target.getUUID());
-        d.setDirty();
+        d.markDirty(t);
         target.displayClientMessage(Component.literal("§6Приглашение в §e" + t.getName() + "§6. Введите: §b/town accept " + t.getName()), false);
         success(ctx,"§aПриглашение отправлено.");
         return Command.SINGLE_SUCCESS;
@@ -424,16 +420,14 @@ public final class TownCommands {
             ctx.getSource().sendFailure(Component.literal("§cВы уже в городе."));
             return 0;
         }
-        Town t = d.getTownMap().values().stream()
-                .filter(x -> x.getName().equalsIgnoreCase(name) && x.hasInvite(p.getUUID()))
-                .findFirst().orElse(null);
-        if (t == null) {
+        Town t = d.getTownByName(name);
+        if (t == null || !t.hasInvite(p.getUUID())) {
             ctx.getSource().sendFailure(Component.literal("§cНет приглашения в этот город."));
             return 0;
         }
 
         t.addMember(p.getUUID(), TownRank.RECRUIT);
-        d.setDirty();
+        d.markDirty(t);
         ctx.getSource().sendSuccess(() ->
                 Component.literal("§aВы вступили в город §e" + t.getName()), false);
         return Command.SINGLE_SUCCESS;
@@ -464,7 +458,7 @@ public final class TownCommands {
             return fail(ctx,"§cМэр не может покинуть город.");
 
         t.removeMember(pl.getUUID());
-        d.setDirty();
+        d.markDirty(t);
         success(ctx,"§eВы покинули "+t.getName());
         return Command.SINGLE_SUCCESS;
     }
@@ -490,7 +484,7 @@ public final class TownCommands {
         }
 
         t.removeMember(target.getUUID());
-        d.setDirty();
+        d.markDirty(t);
         kicker.sendSystemMessage(Component.literal("§aИгрок изгнан."));
         target.displayClientMessage(Component.literal("§cВы изгнаны из " + t.getName()), false);
         return Command.SINGLE_SUCCESS;
@@ -528,7 +522,7 @@ public final class TownCommands {
             t.setRank(target.getUUID(),TownRank.RECRUIT);
             success(ctx,"§eРанг сброшен.");
         }
-        d.setDirty();
+        d.markDirty(t);
         return Command.SINGLE_SUCCESS;
     }
 
@@ -549,7 +543,7 @@ public final class TownCommands {
             return 0;
 
         t.setTownPvp(flag);
-        d.setDirty();
+        d.markDirty(t);
         success(ctx,"§ePvP города: "+flag);
         return Command.SINGLE_SUCCESS;
     }
@@ -578,8 +572,8 @@ public final class TownCommands {
         if (checkCooldown(pl.getUUID(), "CHUNK_PVP", 30 * 20L, now, ctx, "§cПодождите %s перед изменением PvP чанка!"))
             return 0;
 
-        t.chunk(pos).setPvp(flag);
-        d.setDirty();
+        t.editChunk(pos).setPvp(flag);
+        d.chunkChanged(t, pos);
         success(ctx,"§ePvP чанка: "+(flag==null?"reset":flag));
         return Command.SINGLE_SUCCESS;
     }
@@ -606,7 +600,7 @@ public final class TownCommands {
             return 0;
 
         t.setTownExplosion(flag);
-        d.setDirty();
+        d.markDirty(t);
         success(ctx,"§eВзрывы в городе: "+flag);
         return Command.SINGLE_SUCCESS;
     }
@@ -634,8 +628,8 @@ public final class TownCommands {
         if (checkCooldown(pl.getUUID(), "CHUNK_EXPLOSION", 30 * 20L, now, ctx, "§cПодождите %s перед изменением взрывов в чанке!"))
             return 0;
 
-        t.chunk(pos).setExplosion(flag);
-        d.setDirty();
+        t.editChunk(pos).setExplosion(flag);
+        d.chunkChanged(t, pos);
         success(ctx,"§eВзрывы в чанке: "+(flag==null?"reset":flag));
         return Command.SINGLE_SUCCESS;
     }
@@ -668,8 +662,8 @@ public final class TownCommands {
         ChunkPos pos = new ChunkPos(sender.blockPosition());
         if (!t.owns(pos)) return fail(ctx,"§cЧанк не вашего города.");
 
-        t.chunk(pos).setPlayerPerm(target.getUUID(),perm,value);
-        d.setDirty();
+        t.editChunk(pos).setPlayerPerm(target.getUUID(),perm,value);
+        d.chunkChanged(t, pos);
         success(ctx,"§a"+permRaw+" для "+trgName+" = "+value);
         return Command.SINGLE_SUCCESS;
     }
@@ -770,10 +764,6 @@ public final class TownCommands {
     /* ------------------------------------------------------------------ */
     /*                               H E L P E R S                        */
     /* ------------------------------------------------------------------ */
-    private static boolean isAdjacent(ChunkPos a,ChunkPos b){
-        int dx=Math.abs(a.x-b.x),dz=Math.abs(a.z-b.z);
-        return (dx==1&&dz==0)||(dx==0&&dz==1);
-    }
     private static int fail(CommandContext<CommandSourceStack> ctx,String msg){
         ctx.getSource().sendFailure(Component.literal(msg)); return 0;
     }
@@ -0,0 +1,36 @@
+package org.worldcraft.dominioncraft.hud;
+
+/**
+ * Формат пакета {@code dominioncraft:claims} (общий для сервера и клиента):
+ * {@code byte VERSION}, затем операции до конца пакета.
+ *
+ * <pre>
+ * OP_RESET                          — забыть всю карту (вход, смена измерения)
+ * OP_TILE  long region, varint n,   — заменить регион 32×32 целиком
+ *          n × {short cell, varint handle, byte flags}
+ * OP_DROP  long region              — регион вне зоны игрока, забыть
+ * OP_TOWN  varint handle, utf name, boolean pvp
+ * </pre>
+ *
+ * <p>{@code region} — {@link org.worldcraft.dominioncraft.town.ClaimGrid#regionKey},
+ * {@code cell} — {@code (lz << 5) | lx}. В {@code flags} — override PvP
+ * чанка; без override действует PvP города из {@code OP_TOWN}.</p>
+ */
+public final class ClaimProtocol {
+
+    public static final int VERSION = 1;
+
+    public static final int OP_RESET = 0;
+    public static final int OP_TILE  = 1;
+    public static final int OP_DROP  = 2;
+    public static final int OP_TOWN  = 3;
+
+    /* биты flags чанка */
+    public static final int CHUNK_PVP_SET = 1;
+    public static final int CHUNK_PVP     = 2;
+
+    /** Радиус (в регионах) вокруг региона игрока: 3×3 региона = 96×96 чанков. */
+    public static final int RADIUS = 1;
+
+    private ClaimProtocol() {}
+}
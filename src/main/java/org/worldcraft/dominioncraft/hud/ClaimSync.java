@@ -0,0 +1,158 @@
+/* ===================================================================== *
+ *  file: org/worldcraft/dominioncraft/hud/ClaimSync.java                *
+ *  desc: потоковая передача карты клеймов вокруг игрока                 *
+ * ===================================================================== */
+package org.worldcraft.dominioncraft.hud;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.ChunkPos;
+import org.worldcraft.dominioncraft.Dominioncraft;
+import org.worldcraft.dominioncraft.DominionPlayer;
+import org.worldcraft.dominioncraft.town.ClaimGrid;
+import org.worldcraft.dominioncraft.town.Town;
+import org.worldcraft.dominioncraft.town.TownChunk;
+import org.worldcraft.dominioncraft.town.TownData;
+
+import java.util.Iterator;
+
+/**
+ * Передаёт клиенту карту клеймов {@link ClaimProtocol#RADIUS} регионов
+ * вокруг игрока; территорию и PvP чанка клиент определяет сам, каждый кадр.
+ *
+ * <p>Проверка в тике — сравнение региона игрока, {@link ClaimGrid#modCount()}
+ * и {@link HudSync#epoch()} с запомненными. Только если что‑то из этого
+ * изменилось, сверяются версии тайлов ({@link ClaimGrid#tileVersion}) и
+ * уходят изменившиеся регионы и записи городов.</p>
+ */
+public final class ClaimSync {
+
+    /** Что клиент знает о городе с данным handle. */
+    record TownLabel(String name, boolean pvp) {}
+
+    private ClaimSync() {}
+
+    public static void register() {
+        ServerTickEvents.END_SERVER_TICK.register(ClaimSync::tick);
+    }
+
+    private static void tick(MinecraftServer server) {
+        for (ServerPlayer p : server.getPlayerList().getPlayers()) {
+            HudState st = ((DominionPlayer) p).dominioncraft$getHudState();
+            TownData td = TownData.get(p.serverLevel());
+            ClaimGrid grid = td.getClaimGrid();
+            ChunkPos cp = p.chunkPosition();
+            long center = ClaimGrid.regionKey(cp.x, cp.z);
+
+            boolean reset = st.claimLevel != p.level();
+            boolean epochChanged = st.claimEpoch != HudSync.epoch();
+            if (!reset && !epochChanged && st.claimCenter == center && st.claimMod == grid.modCount())
+                continue;
+
+            FriendlyByteBuf buf = PacketByteBufs.create();
+            buf.writeByte(ClaimProtocol.VERSION);
+            boolean any = false;
+
+            if (reset) {
+                st.sentTiles.clear();
+                st.sentTowns.clear();
+                st.claimLevel = p.level();
+                buf.writeByte(ClaimProtocol.OP_RESET);
+                any = true;
+            }
+            st.claimCenter = center;
+            st.claimMod = grid.modCount();
+            st.claimEpoch = HudSync.epoch();
+
+            int rx = cp.x >> ClaimGrid.TILE_SHIFT, rz = cp.z >> ClaimGrid.TILE_SHIFT;
+            int r = ClaimProtocol.RADIUS;
+
+            /* регионы, вышедшие из зоны */
+            Iterator<Long2IntMap.Entry> it = st.sentTiles.long2IntEntrySet().iterator();
+            while (it.hasNext()) {
+                Long2IntMap.Entry e = it.next();
+                long rk = e.getLongKey();
+                if (Math.abs(ChunkPos.getX(rk) - rx) <= r && Math.abs(ChunkPos.getZ(rk) - rz) <= r) continue;
+                if (e.getIntValue() != 0) {
+                    buf.writeByte(ClaimProtocol.OP_DROP);
+                    buf.writeLong(rk);
+                    any = true;
+                }
+                it.remove();
+            }
+
+            /* изменившиеся регионы зоны */
+            IntOpenHashSet handles = new IntOpenHashSet();
+            for (int dz = -r; dz <= r; dz++) {
+                for (int dx = -r; dx <= r; dx++) {
+                    long rk = ChunkPos.asLong(rx + dx, rz + dz);
+                    int version = grid.tileVersion(rk);
+                    int sent = st.sentTiles.get(rk);
+                    if (version == sent) continue;
+                    st.sentTiles.put(rk, version);
+                    if (version == 0 && sent <= 0) continue;   // пусто и клиенту не передавалось
+                    writeTile(buf, td, grid, rk, handles);
+                    any = true;
+                }
+            }
+
+            /* записи городов: из новых тайлов, а при изменении данных — все */
+            if (epochChanged) handles.addAll(st.sentTowns.keySet());
+            for (int h : handles) {
+                Town t = td.getTownByHandle(h);
+                if (t == null) {
+                    st.sentTowns.remove(h);
+                    continue;
+                }
+                TownLabel label = new TownLabel(t.getName(), t.getTownPvp());
+                if (label.equals(st.sentTowns.get(h))) continue;
+                st.sentTowns.put(h, label);
+                buf.writeByte(ClaimProtocol.OP_TOWN);
+                buf.writeVarInt(h);
+                buf.writeUtf(label.name());
+                buf.writeBoolean(label.pvp());
+                any = true;
+            }
+
+            if (any) ServerPlayNetworking.send(p, Dominioncraft.CLAIMS_PACKET, buf);
+        }
+    }
+
+    /** Регион целиком: только занятые ячейки. */
+    private static void writeTile(FriendlyByteBuf buf, TownData td, ClaimGrid grid,
+                                  long rk, IntOpenHashSet handles) {
+        int[] cells = grid.tileCells(rk);
+        int n = 0;
+        if (cells != null) for (int v : cells) if (v != 0) n++;
+
+        buf.writeByte(ClaimProtocol.OP_TILE);
+        buf.writeLong(rk);
+        buf.writeVarInt(n);
+        if (n == 0) return;
+
+        int baseX = ChunkPos.getX(rk) << ClaimGrid.TILE_SHIFT;
+        int baseZ = ChunkPos.getZ(rk) << ClaimGrid.TILE_SHIFT;
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] == 0) continue;
+            int handle = cells[i] - 1;
+            handles.add(handle);
+
+            int flags = 0;
+            Town t = td.getTownByHandle(handle);
+            TownChunk tc = t == null ? null : t.chunk(ChunkPos.asLong(
+                    baseX + (i & (ClaimGrid.TILE_SIZE - 1)), baseZ + (i >> ClaimGrid.TILE_SHIFT)));
+            if (tc != null && tc.getPvp() != null)
+                flags = ClaimProtocol.CHUNK_PVP_SET | (tc.getPvp() ? ClaimProtocol.CHUNK_PVP : 0);
+
+            buf.writeShort(i);
+            buf.writeVarInt(handle);
+            buf.writeByte(flags);
+        }
+    }
+}
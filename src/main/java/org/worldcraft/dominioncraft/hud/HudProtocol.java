@@ -0,0 +1,103 @@
+package org.worldcraft.dominioncraft.hud;
+
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.minecraft.network.FriendlyByteBuf;
+
+/**
+ * Формат пакета {@code dominioncraft:hud} (общий для сервера и клиента).
+ *
+ * <pre>
+ * byte    VERSION
+ * byte    mask            — биты F_* присланных полей, RESET — сбросить словарь
+ * varint  n               — новые записи словаря
+ * n × {varint id, utf}
+ * varint  id              — для каждого строкового поля из mask, по порядку битов
+ * </pre>
+ *
+ * <p>Строки (названия, ранги, имена) передаются один раз как запись
+ * словаря игрока, дальше — только их номер. Неизменившиеся поля не
+ * передаются совсем.</p>
+ */
+public final class HudProtocol {
+
+    /** 2 — территория и PvP чанка ушли в {@link ClaimProtocol}. */
+    public static final int VERSION = 2;
+
+    /* строковые поля: бит i ↔ индекс i в {@link #strings} */
+    public static final int F_TOWN        = 1;
+    public static final int F_TOWN_RANK   = 1 << 1;
+    public static final int F_MAYOR       = 1 << 2;
+    public static final int F_NATION      = 1 << 3;
+    public static final int F_NATION_RANK = 1 << 4;
+    public static final int STRING_FIELDS = 5;
+
+    /** Клиент очищает словарь перед чтением записей пакета. */
+    public static final int RESET = 1 << 7;
+
+    /** Словарь игрока растёт до этого размера, потом начинается заново. */
+    private static final int MAX_DICT = 1024;
+
+    private HudProtocol() {}
+
+    /**
+     * Закодировать отличия {@code view} от {@link HudState#sent}; пополняет
+     * словарь игрока. Первый пакет игрока (и пакет после переполнения
+     * словаря) — полный, с {@link #RESET}.
+     */
+    static FriendlyByteBuf encode(HudState st, HudView view) {
+        HudView prev = st.sent;
+        int mask = 0;
+        if (prev == null || st.dict.size() + STRING_FIELDS > MAX_DICT) {
+            st.dict.clear();
+            prev = null;
+            mask = RESET;
+        }
+
+        String[] now = strings(view);
+        String[] old = prev == null ? null : strings(prev);
+
+        int[] ids = new int[STRING_FIELDS];
+        int firstNew = st.dict.size();
+        for (int i = 0; i < STRING_FIELDS; i++) {
+            if (old != null && now[i].equals(old[i])) continue;
+            mask |= 1 << i;
+            int id = st.dict.getInt(now[i]);
+            if (id < 0) {
+                id = st.dict.size();
+                st.dict.put(now[i], id);
+            }
+            ids[i] = id;
+        }
+
+        FriendlyByteBuf buf = PacketByteBufs.create();
+        buf.writeByte(VERSION);
+        buf.writeByte(mask);
+
+        /* новые записи словаря: номера firstNew.. в порядке полей */
+        buf.writeVarInt(st.dict.size() - firstNew);
+        for (int i = 0; i < STRING_FIELDS; i++) {
+            if ((mask & (1 << i)) != 0 && ids[i] >= firstNew && isFirst(ids, mask, i)) {
+                buf.writeVarInt(ids[i]);
+                buf.writeUtf(now[i]);
+            }
+        }
+
+        for (int i = 0; i < STRING_FIELDS; i++)
+            if ((mask & (1 << i)) != 0) buf.writeVarInt(ids[i]);
+        return buf;
+    }
+
+    /** Новая запись пишется один раз, даже если строка встретилась в двух полях. */
+    private static boolean isFirst(int[] ids, int mask, int i) {
+        for (int j = 0; j < i; j++)
+            if ((mask & (1 << j)) != 0 && ids[j] == ids[i]) return false;
+        return true;
+    }
+
+    /** Строковые поля в порядке битов F_*. */
+    static String[] strings(HudView v) {
+        return new String[] {
+                v.town(), v.townRank(), v.mayor(), v.nation(), v.nationRank()
+        };
+    }
+}
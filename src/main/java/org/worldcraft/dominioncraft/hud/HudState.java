@@ -0,0 +1,56 @@
+package org.worldcraft.dominioncraft.hud;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.world.level.Level;
+import org.worldcraft.dominioncraft.nation.Nation;
+import org.worldcraft.dominioncraft.town.Town;
+
+/**
+ * Что HUD‑подсистема знает об игроке: входные данные последнего расчёта,
+ * последний отправленный {@link HudView} и переданная часть карты клеймов.
+ * Живёт в самом игроке (см. {@link org.worldcraft.dominioncraft.DominionPlayer}),
+ * поэтому новый объект игрока (вход, возрождение) начинает с чистого состояния.
+ */
+public final class HudState {
+
+    /* ── HUD ({@link HudSync}) ── */
+
+    /** Измерение последнего расчёта. */
+    Level level = null;
+    /** {@link HudSync#epoch()} последнего расчёта. */
+    int epoch = 0;
+    /** Последнее отправленное клиенту; {@code null} — ещё ничего. */
+    HudView sent = null;
+
+    /* город и нация, из которых собран {@link #sent}, и их версии */
+    Town town = null;
+    int townVersion = 0;
+    Nation nation = null;
+    int nationVersion = 0;
+    /** {@code HudSync.nameEpoch} последнего расчёта. */
+    int nameEpoch = 0;
+
+    /** Словарь строк, уже известных клиенту: строка → номер ({@link HudProtocol}). */
+    final Object2IntOpenHashMap<String> dict = new Object2IntOpenHashMap<>();
+
+    /* ── карта клеймов ({@link ClaimSync}) ── */
+
+    /** Измерение, для которого передана карта; {@code null} — ничего не передано. */
+    Level claimLevel = null;
+    /** Регион ({@link org.worldcraft.dominioncraft.town.ClaimGrid#regionKey}) игрока. */
+    long claimCenter = Long.MIN_VALUE;
+    /** {@code modCount} сетки и эпоха данных на момент последней проверки. */
+    int claimMod = -1;
+    int claimEpoch = 0;
+    /** Переданные регионы → версия тайла (0 — регион пуст и клиенту нечего знать). */
+    final Long2IntOpenHashMap sentTiles = new Long2IntOpenHashMap();
+    /** Переданные записи handle → город. */
+    final Int2ObjectOpenHashMap<ClaimSync.TownLabel> sentTowns = new Int2ObjectOpenHashMap<>();
+
+    public HudState() {
+        dict.defaultReturnValue(-1);
+        sentTiles.defaultReturnValue(-1);
+    }
+}
@@ -0,0 +1,118 @@
+/* ===================================================================== *
+ *  file: org/worldcraft/dominioncraft/hud/HudSync.java                  *
+ *  desc: событийная синхронизация HUD (территория, город, нация)        *
+ * ===================================================================== */
+package org.worldcraft.dominioncraft.hud;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import org.worldcraft.dominioncraft.Dominioncraft;
+import org.worldcraft.dominioncraft.DominionPlayer;
+import org.worldcraft.dominioncraft.nation.Nation;
+import org.worldcraft.dominioncraft.nation.NationData;
+import org.worldcraft.dominioncraft.town.Town;
+import org.worldcraft.dominioncraft.town.TownData;
+
+import java.util.UUID;
+
+/**
+ * HUD (город, ранги, мэр, нация) пересчитывается только при изменении
+ * входных данных:
+ * <ul>
+ *   <li>игрок перешёл в другое измерение;</li>
+ *   <li>изменились данные городов / наций ({@link #invalidate()} — членство,
+ *       ранги, названия, нация города) — и это город или нация самого игрока
+ *       (сверка {@link Town#getVersion()} / {@link Nation#getVersion()}
+ *       с запомненными в {@link HudState});</li>
+ *   <li>раз в {@link #RESYNC_TICKS} — страховочный пересчёт (разнесён по
+ *       игрокам, чтобы не собираться в один тик).</li>
+ * </ul>
+ * Пакет уходит, только если результат отличается от отправленного ранее,
+ * и содержит только изменившиеся поля ({@link HudProtocol}). Территория и
+ * PvP чанка считаются на клиенте по карте клеймов ({@link ClaimSync}).
+ */
+public final class HudSync {
+
+    /** Период страховочного пересчёта. */
+    private static final int RESYNC_TICKS = 20 * 30;
+
+    /** Эпоха данных городов/наций; 0 зарезервирован за «ещё не считали». */
+    private static int epoch = 1;
+    /** Растёт, когда {@link org.worldcraft.dominioncraft.NameCache} нашёл ник в фоне. */
+    private static int nameEpoch = 0;
+
+    private HudSync() {}
+
+    public static void register() {
+        ServerTickEvents.END_SERVER_TICK.register(HudSync::tick);
+    }
+
+    public static int epoch() { return epoch; }
+
+    /** Данные городов или наций изменились: HUD всех игроков пересчитается. */
+    public static void invalidate() {
+        if (++epoch == 0) epoch = 1;
+    }
+
+    /**
+     * Фоновый поиск ника завершился: версии городов не менялись, поэтому
+     * кроме эпохи сбрасываем и сверку версий — HUD пересоберётся у всех.
+     */
+    public static void namesResolved() {
+        nameEpoch++;
+        invalidate();
+    }
+
+    /* ────────────────────────── тик ─────────────────────────── */
+
+    private static void tick(MinecraftServer server) {
+        int now = server.getTickCount();
+        for (ServerPlayer p : server.getPlayerList().getPlayers()) {
+            HudState st = ((DominionPlayer) p).dominioncraft$getHudState();
+
+            boolean resync = (now + p.getId()) % RESYNC_TICKS == 0;
+            if (!resync && st.level == p.level() && st.epoch == epoch) continue;
+
+            st.level = p.level();
+            st.epoch = epoch;
+
+            /* что‑то изменилось где‑то — но пересобираем, только если это наши город/нация */
+            ServerLevel lvl = p.serverLevel();
+            Town town = TownData.get(lvl).getTownOfPlayer(p.getUUID());
+            Nation nation = town == null || town.getNation() == null
+                    ? null : NationData.get(lvl).get(town.getNation());
+            boolean namesChanged = st.nameEpoch != nameEpoch;
+            st.nameEpoch = nameEpoch;
+            if (!resync && !namesChanged && st.sent != null && town == st.town && nation == st.nation
+                    && (town == null || town.getVersion() == st.townVersion)
+                    && (nation == null || nation.getVersion() == st.nationVersion))
+                continue;
+
+            st.town = town;
+            st.townVersion = town == null ? 0 : town.getVersion();
+            st.nation = nation;
+            st.nationVersion = nation == null ? 0 : nation.getVersion();
+
+            HudView view = compute(p, town, nation);
+            if (view.equals(st.sent)) continue;
+            ServerPlayNetworking.send(p, Dominioncraft.HUD_PACKET, HudProtocol.encode(st, view));
+            st.sent = view;
+        }
+    }
+
+    /* ────────────────────────── расчёт ───────────────────────── */
+
+    /** Собирает HUD игрока из готовых подписей города и нации. */
+    private static HudView compute(ServerPlayer p, Town town, Nation nation) {
+        UUID id = p.getUUID();
+        return new HudView(
+                town == null   ? "Без города" : town.getName(),
+                town == null   ? "—"          : town.getRankLabel(id),
+                town == null   ? "—"          : town.getMayorName(p.getServer()),
+                nation == null ? "Без нации"  : nation.getName(),
+                nation == null ? "—"          : nation.getRankLabel(id));
+    }
+}
@@ -0,0 +1,12 @@
+package org.worldcraft.dominioncraft.hud;
+
+/**
+ * Содержимое HUD одного игрока (порядок полей = порядок в пакете).
+ * Территория и PvP чанка сюда не входят — клиент берёт их из карты
+ * клеймов ({@link ClaimSync}).
+ */
+public record HudView(String town,
+                      String townRank,
+                      String mayor,
+                      String nation,
+                      String nationRank) {}
@@ -12,10 +12,11 @@ import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.worldcraft.dominioncraft.protection.ProtectionEngine;
 import org.worldcraft.dominioncraft.town.*;
 
-import java.util.HashSet;
-import java.util.Set;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 
 @Mixin(Explosion.class)
 public abstract class ExplosionMixin {
@@ -30,14 +31,15 @@ public abstract class ExplosionMixin {
         Explosion explosion = (Explosion)(Object)this;
 
         // Собираем все чанки, которые будут реально разрушены
-        Set<ChunkPos> affectedChunks = new HashSet<>();
+        LongOpenHashSet affectedChunks = new LongOpenHashSet();
         for (var blockPos : explosion.getToBlow()) {
-            affectedChunks.add(new ChunkPos(blockPos));
+            affectedChunks.add(ChunkPos.asLong(blockPos));
         }
 
         TownData d = TownData.get(serverLevel);
 
-        for (ChunkPos pos : affectedChunks) {
+        for (LongIterator it = affectedChunks.iterator(); it.hasNext(); ) {
+            long pos = it.nextLong();
             Town t = d.getTownByChunk(pos);
             if (t == null) continue; // дикие земли
 
@@ -55,9 +57,7 @@ public abstract class ExplosionMixin {
 
             // Если инициатор игрок — проверяем права
             if (source instanceof net.minecraft.server.level.ServerPlayer player) {
-                boolean allowed = t.hasPermission(player.getUUID(), TownPermission.EXPLOSION)
-                        || (t.chunk(pos) != null && t.chunk(pos).playerHas(player.getUUID(), TownPermission.EXPLOSION));
-                if (!allowed) {
+                if (!ProtectionEngine.hasAccess(serverLevel, player, pos, TownPermission.EXPLOSION)) {
                     player.displayClientMessage(
                             net.minecraft.network.chat.Component.literal("§cУ вас нет права на взрывы в этом городе!"), true
                     );
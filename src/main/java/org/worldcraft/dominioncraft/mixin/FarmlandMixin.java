@@ -14,7 +14,8 @@ import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
-import org.worldcraft.dominioncraft.town.*;
+import org.worldcraft.dominioncraft.protection.ProtectionEngine;
+import org.worldcraft.dominioncraft.town.TownPermission;
 
 /**
  * Запрещает топтать грядки без права FARM.
@@ -34,21 +35,8 @@ public abstract class FarmlandMixin {
         if (!(entity instanceof ServerPlayer player)) return;
         if (!(level instanceof ServerLevel server))   return;
 
-        ChunkPos chunk = new ChunkPos(pos);
-        if (!hasAccess(server, player, chunk, TownPermission.FARM)) {
+        if (!ProtectionEngine.hasAccess(server, player, ChunkPos.asLong(pos), TownPermission.FARM)) {
             ci.cancel(); // блокируем изменение блока
         }
     }
-
-    /* ───── helpers ───── */
-
-    private static boolean hasAccess(ServerLevel lvl, ServerPlayer pl,
-                                     ChunkPos c, TownPermission perm) {
-        TownData data = TownData.get(lvl);
-        Town town     = data.getTownByChunk(c);
-        if (town == null) return true;
-        if (town.hasPermission(pl.getUUID(), perm)) return true;
-        TownChunk tc = town.chunk(c);
-        return tc != null && tc.playerHas(pl.getUUID(), perm);
-    }
 }
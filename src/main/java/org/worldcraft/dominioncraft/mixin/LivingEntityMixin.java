@@ -19,7 +19,8 @@ import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
-import org.worldcraft.dominioncraft.town.*;
+import org.worldcraft.dominioncraft.protection.ProtectionEngine;
+import org.worldcraft.dominioncraft.town.TownPermission;
 
 /**
  * ГЛАВНЫЙ страж: блокирует любой урон, который
@@ -86,37 +87,19 @@ public abstract class LivingEntityMixin {
     /** Проверка PvP-флагов обоих чанков. */
     private static boolean isPvpAllowed(ServerPlayer victim, Player attacker) {
         ServerLevel lvl = victim.serverLevel();
-        TownData data   = TownData.get(lvl);
 
-        ChunkPos vPos = new ChunkPos(victim.blockPosition());
-        ChunkPos aPos = new ChunkPos(attacker.blockPosition());
+        long vPos = ChunkPos.asLong(victim.blockPosition());
+        long aPos = ChunkPos.asLong(attacker.blockPosition());
 
-        boolean vFlag = true;
-        boolean aFlag = true;
-
-        Town vTown = data.getTownByChunk(vPos);
-        if (vTown != null) vFlag = vTown.isChunkPvp(vPos);
-
-        Town aTown = data.getTownByChunk(aPos);
-        if (aTown != null) aFlag = aTown.isChunkPvp(aPos);
-
-        return vFlag && aFlag;   // PvP разрешено, только если оба чанка «ON»
+        // PvP разрешено, только если оба чанка «ON»
+        return ProtectionEngine.isPvpAllowed(lvl, vPos) && ProtectionEngine.isPvpAllowed(lvl, aPos);
     }
 
     /** Проверяет право ANIMAL у атакующего. */
     private static boolean hasAnimalPerm(Player attacker, LivingEntity victim) {
         ServerPlayer sp = (ServerPlayer) attacker;                     // гарантировано сервер
-        ServerLevel lvl = sp.serverLevel();
-
-        TownData data  = TownData.get(lvl);
-        ChunkPos pos   = new ChunkPos(victim.blockPosition());
-        Town     town  = data.getTownByChunk(pos);
-
-        if (town == null) return true;                                 // дикие земли
-
-        if (town.hasPermission(sp.getUUID(), TownPermission.ANIMAL)) return true;
-        TownChunk tc = town.chunk(pos);
-        return tc != null && tc.playerHas(sp.getUUID(), TownPermission.ANIMAL);
+        long pos = ChunkPos.asLong(victim.blockPosition());
+        return ProtectionEngine.hasAccess(sp.serverLevel(), sp, pos, TownPermission.ANIMAL);
     }
 
     /** Мирная сущность = не игрок и не Monster. */
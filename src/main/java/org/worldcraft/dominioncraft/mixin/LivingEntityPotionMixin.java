@@ -15,7 +15,8 @@ import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
-import org.worldcraft.dominioncraft.town.*;
+import org.worldcraft.dominioncraft.protection.ProtectionEngine;
+import org.worldcraft.dominioncraft.town.TownPermission;
 
 /**
  * Если игрок бросает вредное зелье / смесь на чужой территории,
@@ -43,26 +44,13 @@ public abstract class LivingEntityPotionMixin {
                 && potion.getOwner() instanceof ServerPlayer attacker)) return;
 
         ServerLevel level = (ServerLevel) victim.level();
-        ChunkPos    chunk = new ChunkPos(victim.blockPosition());
+        long        chunk = ChunkPos.asLong(victim.blockPosition());
 
         /* Проверка права ANIMAL у бросающего */
-        if (!hasAccess(level, attacker, chunk, TownPermission.ANIMAL)) {
+        if (!ProtectionEngine.hasAccess(level, attacker, chunk, TownPermission.ANIMAL)) {
             // отменяем и урон, и эффекты
             cir.setReturnValue(false);
             cir.cancel();
         }
     }
-
-    /* ───────── helper ───────── */
-
-    private static boolean hasAccess(ServerLevel lvl, ServerPlayer pl,
-                                     ChunkPos chunk, TownPermission perm) {
-
-        TownData data = TownData.get(lvl);
-        Town town     = data.getTownByChunk(chunk);
-        if (town == null) return true;                           // дикие земли
-        if (town.hasPermission(pl.getUUID(), perm)) return true; // ранговое
-        TownChunk tc = town.chunk(chunk);
-        return tc != null && tc.playerHas(pl.getUUID(), perm);   // override
-    }
 }
@@ -67,7 +67,7 @@ public class PistonProtectionMixin {
             }
             if (data == null || serverLevel == null) continue;
 
-            Town blockTown = data.getTownByChunk(new ChunkPos(pushed));
+            Town blockTown = data.getTownByChunk(ChunkPos.asLong(pushed));
             // Где стоит сам поршень
             BlockPos pistonPos = null;
             try {
@@ -76,7 +76,7 @@ public class PistonProtectionMixin {
                 pistonPos = (BlockPos) f.get(resolver);
             } catch (Exception ignored) { }
             if (pistonPos == null) continue;
-            Town pistonTown = data.getTownByChunk(new ChunkPos(pistonPos));
+            Town pistonTown = data.getTownByChunk(ChunkPos.asLong(pistonPos));
             if (blockTown != null && (pistonTown == null || !blockTown.equals(pistonTown))) {
                 // Поршень вне города, а блок в городе (или разные города)
                 cir.setReturnValue(false);
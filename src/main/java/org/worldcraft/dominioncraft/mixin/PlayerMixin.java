@@ -0,0 +1,28 @@
+package org.worldcraft.dominioncraft.mixin;
+
+import net.minecraft.world.entity.player.Player;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.worldcraft.dominioncraft.DominionPlayer;
+import org.worldcraft.dominioncraft.hud.HudState;
+import org.worldcraft.dominioncraft.protection.DecisionCache;
+
+/** Кэш решений защиты и состояние HUD прямо в игроке (см. {@link DominionPlayer}). */
+@Mixin(Player.class)
+public abstract class PlayerMixin implements DominionPlayer {
+
+    @Unique private DecisionCache dominioncraft$decisionCache;
+    @Unique private HudState dominioncraft$hudState;
+
+    @Override
+    public DecisionCache dominioncraft$getDecisionCache() {
+        if (dominioncraft$decisionCache == null) dominioncraft$decisionCache = new DecisionCache();
+        return dominioncraft$decisionCache;
+    }
+
+    @Override
+    public HudState dominioncraft$getHudState() {
+        if (dominioncraft$hudState == null) dominioncraft$hudState = new HudState();
+        return dominioncraft$hudState;
+    }
+}
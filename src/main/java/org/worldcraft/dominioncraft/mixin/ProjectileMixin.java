@@ -17,7 +17,8 @@ import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
-import org.worldcraft.dominioncraft.town.*;
+import org.worldcraft.dominioncraft.protection.ProtectionEngine;
+import org.worldcraft.dominioncraft.town.TownPermission;
 
 @Mixin(Projectile.class)
 public abstract class ProjectileMixin {
@@ -42,9 +43,9 @@ public abstract class ProjectileMixin {
         if (!isProtectedEntity(target)) return;
 
         ServerLevel level = (ServerLevel) self.level();
-        ChunkPos chunk = new ChunkPos(target.blockPosition());
+        long chunk = ChunkPos.asLong(target.blockPosition());
 
-        if (!playerHasAnimalPerm(level, attacker, chunk)) {
+        if (!ProtectionEngine.hasAccess(level, attacker, chunk, TownPermission.ANIMAL)) {
             attacker.displayClientMessage(
                     Component.literal("§cНет прав на взаимодействие с этим существом!"), true);
             self.discard();   // удаляем снаряд
@@ -54,15 +55,6 @@ public abstract class ProjectileMixin {
 
     /* ─────────── helpers ─────────── */
 
-    private static boolean playerHasAnimalPerm(ServerLevel lvl, Player pl, ChunkPos chunk) {
-        TownData data = TownData.get(lvl);
-        Town     town = data.getTownByChunk(chunk);
-        if (town == null) return true;                                       // дикие земли
-        if (town.hasPermission(pl.getUUID(), TownPermission.ANIMAL)) return true;
-        TownChunk tc = town.chunk(chunk);
-        return tc != null && tc.playerHas(pl.getUUID(), TownPermission.ANIMAL);
-    }
-
     /**
      * Мирная сущность — всё, что не игрок и не Monster.
      * Включает животных, жителей, рамы, картины, стойки, лодки и т.д.
@@ -0,0 +1,22 @@
+package org.worldcraft.dominioncraft.mixin;
+
+import net.minecraft.server.level.ServerLevel;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.worldcraft.dominioncraft.DominionLevel;
+import org.worldcraft.dominioncraft.nation.NationData;
+import org.worldcraft.dominioncraft.town.TownData;
+
+/** Кэш SavedData мода прямо в {@link ServerLevel} (см. {@link DominionLevel}). */
+@Mixin(ServerLevel.class)
+public abstract class ServerLevelMixin implements DominionLevel {
+
+    @Unique private TownData   dominioncraft$townData;
+    @Unique private NationData dominioncraft$nationData;
+
+    @Override public TownData dominioncraft$getTownData()              { return dominioncraft$townData; }
+    @Override public void     dominioncraft$setTownData(TownData data) { dominioncraft$townData = data; }
+
+    @Override public NationData dominioncraft$getNationData()                { return dominioncraft$nationData; }
+    @Override public void       dominioncraft$setNationData(NationData data) { dominioncraft$nationData = data; }
+}
@@ -7,11 +7,8 @@ import net.minecraft.network.protocol.game.*;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.server.network.ServerGamePacketListenerImpl;
-import net.minecraft.world.item.*;
-import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.ChunkPos;
-import net.minecraft.world.level.block.*;
-import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.player.Player;
@@ -23,6 +20,8 @@ import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
+import org.worldcraft.dominioncraft.protection.PermissionTables;
+import org.worldcraft.dominioncraft.protection.ProtectionEngine;
 import org.worldcraft.dominioncraft.town.*;
 
 @Mixin(ServerGamePacketListenerImpl.class)
@@ -42,9 +41,9 @@ public abstract class UniversalInteractMixin {
         BlockState state    = level.getBlockState(pos);
 
         /* Определяем требуемое право */
-        TownPermission need = resolveBlockPermission(level, pos, state, held, true);
+        TownPermission need = PermissionTables.useItemOn(state, held, true);
 
-        if (!hasAccess(level, player, new ChunkPos(pos), need)) {
+        if (!hasAccess(level, player, ChunkPos.asLong(pos), need)) {
             deny(player);
             conn.send(new ClientboundBlockUpdatePacket(pos, state));   // откат клиенту
             ci.cancel();
@@ -65,8 +64,8 @@ public abstract class UniversalInteractMixin {
 
         /* Всё, что потенциально меняет мир → BUILD;
            остальное — INTERACT (кидать жемчуг, пить зелье и т.д. разрешено) */
-        if (isWorldAffectingItem(held)) {
-            if (!hasAccess(level, player, new ChunkPos(player.blockPosition()), TownPermission.BUILD)) {
+        if (PermissionTables.isWorldAffecting(held)) {
+            if (!hasAccess(level, player, ChunkPos.asLong(player.blockPosition()), TownPermission.BUILD)) {
                 deny(player);
                 ci.cancel();
             }
@@ -91,7 +90,7 @@ public abstract class UniversalInteractMixin {
                 ? TownPermission.CONTAINER
                 : TownPermission.ANIMAL;
 
-        if (!hasAccess(level, player, new ChunkPos(target.blockPosition()), need)) {
+        if (!hasAccess(level, player, ChunkPos.asLong(target.blockPosition()), need)) {
             deny(player);
             conn.send(new ClientboundTeleportEntityPacket(target));   // откат позиции
             ci.cancel();
@@ -112,7 +111,7 @@ public abstract class UniversalInteractMixin {
         BlockPos pos        = pkt.getPos();
         BlockState state    = level.getBlockState(pos);
 
-        if (!hasAccess(level, player, new ChunkPos(pos), TownPermission.BREAK)) {
+        if (!hasAccess(level, player, ChunkPos.asLong(pos), TownPermission.BREAK)) {
             deny(player);
             conn.send(new ClientboundBlockUpdatePacket(pos, state));
             ci.cancel();
@@ -125,63 +124,14 @@ public abstract class UniversalInteractMixin {
 
     /** Центральная проверка прав. */
     private static boolean hasAccess(ServerLevel lvl, ServerPlayer pl,
-                                     ChunkPos chunk, TownPermission perm) {
-
-        TownData data = TownData.get(lvl);
-        Town town     = data.getTownByChunk(chunk);
-        if (town == null) return true;                              // дикие земли
-
-        if (town.hasPermission(pl.getUUID(), perm)) return true;    // рангово
-        TownChunk tc = town.chunk(chunk);
-        return tc != null && tc.playerHas(pl.getUUID(), perm);      // override
+                                     long chunk, TownPermission perm) {
+        return ProtectionEngine.hasAccess(lvl, pl, chunk, perm);
     }
 
     private static void deny(Player p) {
         p.displayClientMessage(Component.literal("§cНет прав!"), true);
     }
 
-    /* ---------- право по блоку / предмету ---------- */
-    private static TownPermission resolveBlockPermission(BlockGetter level, BlockPos pos,
-                                                         BlockState state, ItemStack held,
-                                                         boolean placingAttempt) {
-
-        Block blk = state.getBlock();
-
-        /* попытка поставить блок → BUILD */
-        if (placingAttempt && held.getItem() instanceof BlockItem) return TownPermission.BUILD;
-
-        if (held.getItem() instanceof BucketItem    // ведро воды/лавы
-                || held.getItem() instanceof FlintAndSteelItem
-                || held.getItem() instanceof FireChargeItem
-                || held.getItem() instanceof SpawnEggItem)        // спавн-яйцо
-            return TownPermission.BUILD;
-
-        if (isFarmItem(held) || isFarmBlock(blk))   return TownPermission.FARM;
-
-        if (level.getBlockEntity(pos) != null)      return TownPermission.CONTAINER;
-
-        return TownPermission.INTERACT;             // по умолчанию
-    }
-
-    private static boolean isWorldAffectingItem(ItemStack st) {
-        return st.getItem() instanceof BucketItem
-                || st.getItem() instanceof FlintAndSteelItem
-                || st.getItem() instanceof FireChargeItem
-                || st.getItem() instanceof BlockItem
-                || st.getItem() instanceof SpawnEggItem;
-    }
-
-    private static boolean isFarmBlock(Block b) {
-        return b instanceof FarmBlock || b instanceof CropBlock
-                || b instanceof StemBlock || b instanceof CocoaBlock
-                || b instanceof SweetBerryBushBlock || b instanceof NetherWartBlock;
-    }
-
-    private static boolean isFarmItem(ItemStack st) {
-        return st.getItem() instanceof HoeItem || st.is(Items.BONE_MEAL)
-                || (st.getItem() instanceof BlockItem bi && bi.getBlock() instanceof CropBlock);
-    }
-
     /** контейнер-сущности: любые AbstractMinecartContainer + ChestBoat */
     private static boolean isContainerEntity(Entity e) {
         return e instanceof AbstractMinecartContainer || e instanceof ChestBoat;
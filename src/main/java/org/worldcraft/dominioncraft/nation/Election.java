@@ -27,6 +27,15 @@ public class Election {
         this.voteEndTick = regEndTick + 20L * 60 * 60 * 24;    // +24 ч
     }
 
+    /** Восстановление сохранённой кампании в её фазе (см. {@link Nation#fromNbt}). */
+    Election(long start, Phase phase) {
+        this(start);
+        this.phase = phase;
+    }
+
+    /** Начало кампании (tick). */
+    public long getStartTick()     { return regEndTick - (voteEndTick - regEndTick); }
+
     /* ─────────────────────── getters ──────────────────────────── */
 
     public Phase getPhase()        { return phase;        }
@@ -61,9 +70,15 @@ public class Election {
 
     /* ───────────────────────── tick ───────────────────────────── */
 
-    /** Вызывается из NationTimers раз в tick. */
-    public void tick(long now) {
+    /**
+     * Вызывается из NationTimers раз в tick.
+     *
+     * @return {@code true}, если фаза сменилась
+     */
+    public boolean tick(long now) {
+        Phase before = phase;
         if (phase == Phase.REGISTRATION && now >= regEndTick) phase = Phase.VOTING;
         if (phase == Phase.VOTING       && now >= voteEndTick) phase = Phase.FINISHED;
+        return phase != before;
     }
 }
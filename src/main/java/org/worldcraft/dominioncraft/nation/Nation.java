@@ -7,6 +7,7 @@ package org.worldcraft.dominioncraft.nation;
 import net.minecraft.nbt.*;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.MinecraftServer;
+import org.worldcraft.dominioncraft.NameCache;
 import org.worldcraft.dominioncraft.town.*;
 
 import java.util.*;
@@ -27,6 +28,9 @@ public class Nation {
     private UUID capitalTown;
     private UUID leader;
 
+    /** Растёт при каждом {@link NationData#markChanged} — по нему HUD видит изменения. */
+    private int version = 0;
+
     /* ───────────────────────── коллекции ──────────────────────────── */
 
     private final Set<UUID> towns = new HashSet<>();
@@ -85,8 +89,11 @@ public class Nation {
     /* ───────────────────── getters / setters ─────────────────────── */
 
     public UUID getId()            { return id; }
+    public int  getVersion()       { return version; }
+    void        bumpVersion()      { version++; }
     public String getName()        { return name; }
-    public void   setName(String n){ this.name = n; }
+    /** Только через {@link NationData#renameNation} — там индекс имён. */
+    void          setName(String n){ this.name = n; }
 
     public GovernmentType getGovernment() { return government; }
     public NationStatus   getStatus()     { return status; }
@@ -118,7 +125,7 @@ public class Nation {
     /** Добавить город; всем его жителям выдать базовый ранг. */
     public void addTown(UUID townId) {
         towns.add(townId);
-        Town t = org.worldcraft.dominioncraft.town.TownData.getServerTown(townId);
+        Town t = TownRegistry.get(townId);
         if (t != null) t.getMembers().forEach(this::addCitizenIfAbsent);
     }
 
@@ -128,7 +135,7 @@ public class Nation {
         applications.remove(townId);
         secessions.remove(townId);
 
-        Town t = org.worldcraft.dominioncraft.town.TownData.getServerTown(townId);
+        Town t = TownRegistry.get(townId);
         if (t != null) t.getMembers().forEach(playerRanks::remove);
     }
 
@@ -136,6 +143,12 @@ public class Nation {
 
     public NationRank getRank(UUID player) { return playerRanks.get(player); }
 
+    /** Ранг для показа: имя ранга или «—». */
+    public String getRankLabel(UUID player) {
+        NationRank r = playerRanks.get(player);
+        return r == null ? "—" : r.name();
+    }
+
     /** Задать/заменить ранг (null → CITIZEN). */
     public void setRank(UUID player, NationRank rank) {
         playerRanks.put(player, rank == null ? NationRank.CITIZEN : rank);
@@ -189,16 +202,14 @@ public class Nation {
     /* ───────────────────── утилиты ───────────────── */
 
     public String getPlayerName(MinecraftServer srv, UUID id) {
-        return srv.getProfileCache().get(id)
-                .map(com.mojang.authlib.GameProfile::getName)
-                .orElse(id.toString());
+        return NameCache.resolve(srv, id, id.toString());
     }
 
     /* ================================================================= *
      *                             NBT ‑ save                            *
      * ================================================================= */
     public CompoundTag toNbt() {
-        CompoundTag tag = new CompoundTag();
+        CompoundTag tag = NationFormat.CHAIN.stamp(new CompoundTag());
 
         tag.putUUID("Id",       id);
         tag.putString("Name",   name);
@@ -229,7 +240,7 @@ public class Nation {
         /* election meta */
         tag.putLong("NextElect", nextElectionTick);
         if (election   != null) tag.put("Election",   saveElection(election));
-        if (referendum != null) tag.put("Referendum", saveReferendum(referendum));
+        if (referendum != null) tag.put("Referendum", referendum.toNbt());
 
         /* applications / secessions */
         ListTag appl = new ListTag();
@@ -246,6 +257,10 @@ public class Nation {
     /* ================================================================= *
      *                             NBT ‑ load                            *
      * ================================================================= */
+    /**
+     * Декодер текущей версии формата; старые записи сначала проходят
+     * {@link NationFormat#CHAIN} (см. {@link NationData}).
+     */
     public static Nation fromNbt(CompoundTag tag) {
 
         UUID id     = tag.getUUID("Id");
@@ -275,13 +290,11 @@ public class Nation {
                 tag.getList("ConstRules", Tag.TAG_STRING));
 
         /* election meta */
-        if (tag.contains("NextElect"))
-            n.nextElectionTick = tag.getLong("NextElect");
-
+        n.nextElectionTick = tag.getLong("NextElect");
         if (tag.contains("Election"))
             n.election = loadElection(tag.getCompound("Election"));
         if (tag.contains("Referendum"))
-            n.referendum = loadReferendum(tag.getCompound("Referendum"));
+            n.referendum = Referendum.fromNbt(tag.getCompound("Referendum"));
 
         /* applications */
         tag.getList("Applications", Tag.TAG_COMPOUND)
@@ -297,13 +310,6 @@ public class Nation {
                     n.secessions.put(s.townId, s);
                 });
 
-        /* гарантируем задержку первых выборов, если республика без кампании */
-        if (gov == GovernmentType.REPUBLIC
-                && n.election == null
-                && n.nextElectionTick == 0) {
-            n.nextElectionTick = NationCommands.TICKS_14_DAYS;
-        }
-
         return n;
     }
 
@@ -316,8 +322,8 @@ public class Nation {
 
     private static CompoundTag saveElection(Election e) {
         CompoundTag t = new CompoundTag();
-        t.putLong("RegEnd",  e.getRegEndTick());
-        t.putLong("VoteEnd", e.getVoteEndTick());
+        t.putLong("Start",   e.getStartTick());
+        t.putString("Phase", e.getPhase().name());
 
         /* кандидаты */
         ListTag c = new ListTag();
@@ -337,52 +343,19 @@ public class Nation {
     }
 
     private static Election loadElection(CompoundTag t) {
-        long regEnd  = t.getLong("RegEnd");
-        long voteEnd = t.getLong("VoteEnd");
-        long period  = voteEnd - regEnd;              // 24 ч по текущей логике
-        long start   = regEnd - period;               // восстановить «start»
-
-        Election e = new Election(start);
+        Election e = new Election(t.getLong("Start"), Election.Phase.valueOf(t.getString("Phase")));
 
-        /* кандидаты */
+        /* кандидаты и голоса — напрямую: addCandidate/vote проверяют фазу */
         t.getList("Cands", Tag.TAG_INT_ARRAY)
-                .forEach(x -> e.addCandidate(NbtUtils.loadUUID(x)));
-
-        /* голоса */
+                .forEach(x -> e.getCandidates().add(NbtUtils.loadUUID(x)));
         t.getList("Votes", Tag.TAG_COMPOUND)
                 .forEach(x -> {
                     CompoundTag cv = (CompoundTag) x;
-                    e.vote(cv.getUUID("V"), cv.getUUID("C"));
+                    e.votes.put(cv.getUUID("V"), cv.getUUID("C"));
                 });
         return e;
     }
 
-    /* ---------- Referendum ---------- */
-
-    private static CompoundTag saveReferendum(Referendum r) {
-        CompoundTag t = new CompoundTag();
-        t.putString("Q", r.question);
-        t.putLong("End", r.endTick);
-
-        ListTag sig = new ListTag();
-        r.signatures.forEach(u -> sig.add(NbtUtils.createUUID(u)));
-        t.put("Sig", sig);
-
-        ListTag v = new ListTag();
-        r.votes.forEach((voter, yes) -> {
-            CompoundTag e2 = new CompoundTag();
-            e2.putUUID("V", voter);
-            e2.putBoolean("Y", yes);
-            v.add(e2);
-        });
-        t.put("Votes", v);
-        return t;
-    }
-
-    private static Referendum loadReferendum(CompoundTag t) {
-        return Referendum.fromNbt(t);
-    }
-
 
 
     /* ---------- Application (заявка города) ---------- */
@@ -21,6 +21,7 @@ import net.minecraft.server.level.ServerPlayer;
 import org.worldcraft.dominioncraft.NewsUtil;
 import org.worldcraft.dominioncraft.town.Town;
 import org.worldcraft.dominioncraft.town.TownData;
+import org.worldcraft.dominioncraft.town.TownRegistry;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -218,7 +219,7 @@ public final class NationCommands {
 
         NationData nd = NationData.get(pl.serverLevel());
         if (city.getNation() != null) return fail(ctx, "§cГород уже в нации.");
-        if (nd.byName(name) != null)  return fail(ctx, "§cИмя занято.");
+        if (nd.isNameTaken(name))     return fail(ctx, "§cИмя занято.");
 
         Nation n = nd.createNation(name, gov, city.getId(), pl.getUUID());
         /* ---------- ВСТАВЬ ЭТИ 4 СТРОКИ ---------- */
@@ -228,7 +229,7 @@ public final class NationCommands {
         }
         /* ----------------------------------------- */
         city.setNation(n.getId());
-        TownData.get(pl.serverLevel()).setDirty();
+        TownData.get(pl.serverLevel()).markDirty(city);
 
         // Глобальная новость
         String form = gov == GovernmentType.REPUBLIC ? "республика" : "монархия";
@@ -249,7 +250,7 @@ public final class NationCommands {
         if (!n.applications.containsKey(t.getId())) return fail(ctx,"§cЗаявки нет.");
         n.addTown(t.getId()); t.setNation(n.getId());
         n.applications.remove(t.getId());
-        td.setDirty(); NationData.get(pl.serverLevel()).setDirty();
+        td.markDirty(t); NationData.get(pl.serverLevel()).markChanged(n);
         success(ctx,"§aГород принят в нацию.");
         return Command.SINGLE_SUCCESS;
     }
@@ -262,7 +263,7 @@ public final class NationCommands {
         if (t==null) return fail(ctx,"§cГород не найден.");
         if (!n.applications.containsKey(t.getId())) return fail(ctx,"§cЗаявки нет.");
         n.applications.remove(t.getId());
-        NationData.get(pl.serverLevel()).setDirty();
+        NationData.get(pl.serverLevel()).markChanged(n);
         success(ctx,"§eЗаявка отклонена.");
         return Command.SINGLE_SUCCESS;
     }
@@ -284,7 +285,7 @@ public final class NationCommands {
         if (!e.addCandidate(pl.getUUID()))
             return fail(ctx, "§eВы уже кандидат.");
 
-        NationData.get(pl.serverLevel()).setDirty();
+        NationData.get(pl.serverLevel()).markChanged(n);
         success(ctx, "§aВы зарегистрированы кандидатом.");
         return Command.SINGLE_SUCCESS;
     }
@@ -311,13 +312,12 @@ public final class NationCommands {
             ctx.getSource().sendFailure(Component.literal("§cНация не найдена."));
             return 0;
         }
-        TownData td = TownData.get(ctx.getSource().getLevel());
         StringBuilder sb = new StringBuilder();
         sb.append("§6Нация: §e").append(n.getName())
                 .append("\n§7Форма: §a").append(n.getGovernment())
                 .append("\n§7Статус: ").append(n.getStatus())
                 .append("\n§7Столица: §a");
-        Town capital = td.getTown(n.getCapitalTown());
+        Town capital = TownRegistry.get(n.getCapitalTown());
         sb.append(capital != null ? capital.getName() : "—");
         sb.append("\n§7Лидер: §b").append(n.getLeader());
         sb.append("\n§7Городов: §a").append(n.getTowns().size());
@@ -326,7 +326,7 @@ public final class NationCommands {
         sb.append("\n§7Состав: §f");
         boolean first = true;
         for (UUID townId : n.getTowns()) {
-            Town t = td.getTown(townId);
+            Town t = TownRegistry.get(townId);
             if (t != null) {
                 if (!first) sb.append("§7, ");
                 sb.append("§e").append(t.getName());
@@ -350,7 +350,7 @@ public final class NationCommands {
         long duration = 24 * 60 * 60 * 20; // 24 часа
         n.referendum = new Referendum(question, now, now + duration, false);
 
-        NationData.get(pl.serverLevel()).setDirty();
+        NationData.get(pl.serverLevel()).markChanged(n);
 
         // Новость только для граждан нации
         NewsUtil.broadcastNation(pl.getServer(), n,
@@ -373,7 +373,7 @@ public final class NationCommands {
 
         boolean yes = BoolArgumentType.getBool(ctx, "yes");
         n.referendum.vote(pl.getUUID(), yes);
-        NationData.get(pl.serverLevel()).setDirty();
+        NationData.get(pl.serverLevel()).markChanged(n);
         success(ctx, "§aВаш голос учтён: " + (yes ? "§aЗА" : "§cПРОТИВ"));
         return Command.SINGLE_SUCCESS;
     }
@@ -409,7 +409,6 @@ public final class NationCommands {
             return fail(ctx, "§cТолько лидер.");
 
         ServerLevel lvl = pl.serverLevel();
-        TownData td = TownData.get(lvl);
 
         if (n.getGovernment() == GovernmentType.REPUBLIC) {
             long now = lvl.getServer().overworld().getGameTime();
@@ -440,13 +439,13 @@ public final class NationCommands {
             );
             success(ctx, "§eРеферендум о роспуске начат. Через 24 часа будет принято решение.");
             Nation.GlobalNews.broadcast(lvl.getServer(), "В нации \"" + n.getName() + "\" запущен референдум о роспуске!");
-            NationData.get(lvl).setDirty();
+            NationData.get(lvl).markChanged(n);
             return Command.SINGLE_SUCCESS;
         }
 
-        // Для монархий — обычное удаление
+        // Для монархий — обычное удаление (города могут быть в любом измерении)
         for (UUID townId : n.getTowns()) {
-            Town t = td.getTown(townId);
+            Town t = TownRegistry.get(townId);
             if (t != null) t.setNation(null);
         }
         NationData.get(lvl).deleteNation(n);
@@ -480,7 +479,7 @@ public final class NationCommands {
             return fail(ctx, "§cКандидат не найден.");
 
         e.vote(pl.getUUID(), candUUID);
-        NationData.get(pl.serverLevel()).setDirty();
+        NationData.get(pl.serverLevel()).markChanged(n);
         success(ctx, "§aГолос учтён.");
         return Command.SINGLE_SUCCESS;
     }
@@ -520,7 +519,7 @@ public final class NationCommands {
             throws CommandSyntaxException {
         ServerPlayer pl = ctx.getSource().getPlayerOrException();
         Nation n = requireNationWithPerm(pl, NationPermission.MANAGE_STATUS, ctx); if (n==null) return 0;
-        n.setStatus(st); NationData.get(pl.serverLevel()).setDirty();
+        n.setStatus(st); NationData.get(pl.serverLevel()).markChanged(n);
         success(ctx,"§aСтатус установлен.");
         return Command.SINGLE_SUCCESS;
     }
@@ -531,14 +530,13 @@ public final class NationCommands {
         Nation n = playerNation(pl);
         if (n == null) return fail(ctx, "§cВы вне нации.");
         var server = pl.getServer();
-        var td = TownData.get(pl.serverLevel());
 
         // Лидер
         String leaderName = n.getLeader() != null ? n.getPlayerName(server, n.getLeader()) : "—";
 
         // Столица
-        String capitalName = n.getCapitalTown() != null && td.getTown(n.getCapitalTown()) != null
-                ? td.getTown(n.getCapitalTown()).getName() : "—";
+        Town capital = n.getCapitalTown() != null ? TownRegistry.get(n.getCapitalTown()) : null;
+        String capitalName = capital != null ? capital.getName() : "—";
 
         // Министры (или совет, зависит от рангов)
         List<String> ministers = n.playerRanks.entrySet().stream()
@@ -548,7 +546,7 @@ public final class NationCommands {
 
         // Список городов
         List<String> townNames = n.getTowns().stream()
-                .map(uuid -> td.getTown(uuid))
+                .map(TownRegistry::get)
                 .filter(Objects::nonNull)
                 .map(Town::getName)
                 .toList();
@@ -593,8 +591,8 @@ public final class NationCommands {
         if (n.getStatus() == NationStatus.OPEN) {
             n.addTown(city.getId());
             city.setNation(n.getId());
-            TownData.get(pl.serverLevel()).setDirty();
-            nd.setDirty();
+            TownData.get(pl.serverLevel()).markDirty(city);
+            nd.markChanged(n);
 
             // Глобальная новость:
             Nation.GlobalNews.broadcast(pl.getServer(),
@@ -605,7 +603,7 @@ public final class NationCommands {
             if (n.applications.containsKey(city.getId()))
                 return fail(ctx, "§eЗаявка уже есть.");
             n.applications.put(city.getId(), new Application(city.getId(), pl.getUUID()));
-            nd.setDirty();
+            nd.markChanged(n);
             success(ctx, "§aЗаявка отправлена.");
         }
         return Command.SINGLE_SUCCESS;
@@ -625,7 +623,7 @@ public final class NationCommands {
         if (t.getNation()!=null) return fail(ctx,"§cГород уже в нации.");
 
         n.applications.put(t.getId(), new Application(t.getId(), pl.getUUID()));
-        NationData.get(pl.serverLevel()).setDirty();
+        NationData.get(pl.serverLevel()).markChanged(n);
         success(ctx,"§aПриглашение отправлено.");
         return Command.SINGLE_SUCCESS;
     }
@@ -648,8 +646,8 @@ public final class NationCommands {
         n.addTown(t.getId());
         t.setNation(n.getId());
         n.applications.remove(t.getId());
-        TownData.get(pl.serverLevel()).setDirty();
-        nd.setDirty();
+        TownData.get(pl.serverLevel()).markDirty(t);
+        nd.markChanged(n);
 
         // Глобальная новость:
         Nation.GlobalNews.broadcast(pl.getServer(),
@@ -667,9 +665,8 @@ public final class NationCommands {
         Nation n = playerNation(pl);
         if (n==null) return fail(ctx,"§cВы вне нации.");
 
-        TownData td = TownData.get(pl.serverLevel());
         String list = n.applications.keySet().stream()
-                .map(td::getTown)
+                .map(TownRegistry::get)
                 .filter(java.util.Objects::nonNull)
                 .map(Town::getName)
                 .collect(Collectors.joining(", "));
@@ -694,8 +691,8 @@ public final class NationCommands {
 
         n.removeTown(t.getId());
         t.setNation(null);
-        td.setDirty();
-        NationData.get(pl.serverLevel()).setDirty();
+        td.markDirty(t);
+        NationData.get(pl.serverLevel()).markChanged(n);
 
         // Глобальная новость:
         Nation.GlobalNews.broadcast(pl.getServer(),
@@ -719,8 +716,8 @@ public final class NationCommands {
 
         n.removeTown(city.getId());
         city.setNation(null);
-        TownData.get(pl.serverLevel()).setDirty();
-        NationData.get(pl.serverLevel()).setDirty();
+        TownData.get(pl.serverLevel()).markDirty(city);
+        NationData.get(pl.serverLevel()).markChanged(n);
 
         // Глобальная новость
         Nation.GlobalNews.broadcast(pl.getServer(),
@@ -758,7 +755,7 @@ public final class NationCommands {
         } else {
             n.removeRule(ck);              // ← новый мутатор
         }
-        NationData.get(pl.serverLevel()).setDirty();
+        NationData.get(pl.serverLevel()).markChanged(n);
         success(ctx, "§aИзменено.");
         return Command.SINGLE_SUCCESS;
     }
@@ -779,7 +776,7 @@ public final class NationCommands {
         catch (IllegalArgumentException e){ return fail(ctx,"§cНеизвестный ранг."); }
 
         n.setRank(target.getUUID(), rank);
-        NationData.get(pl.serverLevel()).setDirty();
+        NationData.get(pl.serverLevel()).markChanged(n);
         success(ctx,"§aРанг установлен.");
         return Command.SINGLE_SUCCESS;
     }
@@ -847,7 +844,7 @@ public final class NationCommands {
                 if (n==null) return b.buildFuture();
                 return SharedSuggestionProvider.suggest(
                         n.getTowns().stream()
-                                .map(id-> TownData.get(c.getSource().getLevel()).getTown(id))
+                                .map(TownRegistry::get)
                                 .filter(java.util.Objects::nonNull)
                                 .map(Town::getName).collect(Collectors.toList()), b);
             };
@@ -866,7 +863,7 @@ public final class NationCommands {
                 if (n==null) return b.buildFuture();
                 return SharedSuggestionProvider.suggest(
                         n.applications.keySet().stream()
-                                .map(id-> TownData.get(c.getSource().getLevel()).getTown(id))
+                                .map(TownRegistry::get)
                                 .filter(java.util.Objects::nonNull)
                                 .map(Town::getName).collect(Collectors.toList()), b);
             };
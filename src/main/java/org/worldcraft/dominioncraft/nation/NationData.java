@@ -1,15 +1,30 @@
 package org.worldcraft.dominioncraft.nation;
 
+import com.mojang.logging.LogUtils;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.util.datafix.DataFixTypes;
 import net.minecraft.world.level.saveddata.SavedData;
+import org.slf4j.Logger;
+import org.worldcraft.dominioncraft.DominionLevel;
+import org.worldcraft.dominioncraft.hud.HudSync;
+import org.worldcraft.dominioncraft.mixin.DimensionDataStorageAccessor;
+import org.worldcraft.dominioncraft.storage.Journal;
+import org.worldcraft.dominioncraft.storage.NationStore;
+import org.worldcraft.dominioncraft.storage.SaveQueue;
+import org.worldcraft.dominioncraft.storage.StorageConfig;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -21,34 +36,178 @@ import java.util.UUID;
 public class NationData extends SavedData {
 
     private static final String FILE_ID = "dominioncraft_nations";
+    private static final Logger LOGGER  = LogUtils.getLogger();
+
+    /** Очередь фоновой записи этого хранилища. */
+    private final SaveQueue saveQueue = new SaveQueue(FILE_ID);
+
+    /** Backend хранения (NBT‑файл или SQLite, см. {@link StorageConfig}). */
+    private NationStore store = null;
+
+    /* ── инкрементальное сохранение ── */
+    private final Set<UUID> dirtyNations   = new HashSet<>();
+    private final Set<UUID> removedNations = new HashSet<>();
+    /** Переписать все нации (перенос в новое хранилище или «глухой» setDirty()). */
+    private boolean fullRewrite = false;
+
+    /** Журнал изменений между автосейвами (null — хранилище ещё не подключено). */
+    private Journal journal = null;
+    /** Нации, изменённые в текущем тике (запись в журнал — {@link #flushJournal()}). */
+    private final Set<UUID> journalPending = new HashSet<>();
 
     private final Map<UUID, Nation> nations = new HashMap<>();
+    /** {@link #nameKey} → нация; имена уникальны без учёта регистра. */
+    private final Map<String, Nation> nameIndex = new HashMap<>();
 
     /* ───────── CRUD ───────── */
 
+    /** @return новая нация или {@code null}, если имя уже занято. */
     public Nation createNation(String name, GovernmentType gov,
                                UUID capitalTown, UUID leader) {
+        if (isNameTaken(name)) return null;
         Nation n = new Nation(UUID.randomUUID(), name, gov, capitalTown, leader);
-        nations.put(n.getId(), n);
-        setDirty();
+        put(n);
+        markChanged(n);
         return n;
     }
 
     public void deleteNation(Nation n) {
         nations.remove(n.getId());
-        setDirty();
+        nameIndex.remove(nameKey(n.getName()), n);
+        HudSync.invalidate();
+        dirtyNations.remove(n.getId());
+        removedNations.add(n.getId());
+        journalPending.add(n.getId());
+        setDirty(true);
     }
 
-    public Nation get(UUID id)               { return nations.get(id); }
-    public Nation byName(String name) {
-        for (Nation n : nations.values())
-            if (n.getName().equalsIgnoreCase(name)) return n;
-        return null;
+    /** Переименовать нацию; {@code false}, если имя занято другой нацией. */
+    public boolean renameNation(Nation n, String name) {
+        Nation other = byName(name);
+        if (other != null && other != n) return false;
+        nameIndex.remove(nameKey(n.getName()), n);
+        n.setName(name);
+        nameIndex.put(nameKey(name), n);
+        markChanged(n);
+        return true;
+    }
+
+    /** Нация изменилась: пометить данные и записать её в журнал в конце тика. */
+    public void markChanged(Nation n) {
+        n.bumpVersion();
+        HudSync.invalidate();
+        dirtyNations.add(n.getId());
+        journalPending.add(n.getId());
+        setDirty(true);
+    }
+
+    /** Без указания нации — переписать все (на случай внешних изменений). */
+    @Override
+    public void setDirty() {
+        fullRewrite = true;
+        super.setDirty();
+    }
+
+    private void put(Nation n) {
+        nations.put(n.getId(), n);
+        nameIndex.putIfAbsent(nameKey(n.getName()), n);
     }
+
+    public Nation get(UUID id)               { return nations.get(id); }
+    public Nation byName(String name)        { return nameIndex.get(nameKey(name)); }
+    public boolean isNameTaken(String name)  { return nameIndex.containsKey(nameKey(name)); }
+
+    /** Нормализованный ключ имени (root‑locale lowercase). */
+    public static String nameKey(String name) { return name.toLowerCase(Locale.ROOT); }
     public Collection<Nation> all()   { return nations.values(); }
 
+    /* ───────── JOURNAL ───────── */
+
+    /** Дописать в журнал нации, изменённые за тик. */
+    public void flushJournal() {
+        if (journalPending.isEmpty() || journal == null) return;
+
+        List<Journal.Entry> entries = new ArrayList<>(journalPending.size());
+        for (UUID id : journalPending) {
+            Nation n = nations.get(id);
+            entries.add(n == null ? Journal.Entry.del(id) : Journal.Entry.put(id, n.toNbt()));
+        }
+        journalPending.clear();
+
+        Journal j = journal;
+        saveQueue.enqueue(() -> j.append(entries));
+    }
+
+    /**
+     * Подключить backend и журнал. Нации из backend'а заменяют прочитанные
+     * из {@code .dat}; пустая SQL‑база один раз заполняется из файла.
+     * Журнал проигрывается поверх.
+     */
+    private void attach(ServerLevel level) {
+        File dataFolder = ((DimensionDataStorageAccessor) level.getDataStorage())
+                .dominioncraft$getDataFolder();
+        store = StorageConfig.nationStore(dataFolder, FILE_ID);
+
+        List<CompoundTag> stored = store.loadNations();
+        if (!stored.isEmpty()) {
+            nations.clear();
+            nameIndex.clear();
+            for (CompoundTag t : stored) put(decode(t));
+        } else if (!store.wantsFullSnapshot() && !nations.isEmpty()) {
+            LOGGER.info("[DominionCraft] Перенос наций из NBT в новое хранилище");
+            setDirty();
+        }
+
+        journal = new Journal(new File(dataFolder, FILE_ID + ".journal"));
+        List<Journal.Entry> entries = journal.read();
+        for (Journal.Entry e : entries) {
+            Nation old = nations.remove(e.id());
+            if (old != null) nameIndex.remove(nameKey(old.getName()), old);
+            if (e.op() == Journal.PUT) {
+                put(decode(e.tag()));
+                dirtyNations.add(e.id());
+            } else {
+                removedNations.add(e.id());
+            }
+        }
+        if (!entries.isEmpty()) {
+            LOGGER.info("[DominionCraft] Восстановлено {} записей журнала наций", entries.size());
+            setDirty(true);
+        }
+    }
+
     /* ───────── SAVE ───────── */
 
+    /**
+     * Снимок NBT собирается на главном потоке, запись в backend —
+     * в {@link SaveQueue}. Файловому backend'у нужны все нации, SQL —
+     * только изменённые.
+     */
+    @Override
+    public void save(File file) {
+        if (!isDirty() || store == null) return;
+
+        Collection<UUID> ids = fullRewrite || store.wantsFullSnapshot() ? nations.keySet() : dirtyNations;
+        Map<UUID, CompoundTag> writes = new HashMap<>();
+        for (UUID id : ids) {
+            Nation n = nations.get(id);
+            if (n != null) writes.put(id, n.toNbt());
+        }
+        List<UUID> deletes = new ArrayList<>(removedNations);
+
+        dirtyNations.clear();
+        removedNations.clear();
+        journalPending.clear();          // снимок уже содержит эти правки
+        fullRewrite = false;
+        setDirty(false);
+
+        Journal j = journal;
+        NationStore s = store;
+        saveQueue.submit(() -> {
+            if (s.writeNations(writes, deletes)) j.reset();
+        });
+    }
+
     @Override
     public CompoundTag save(CompoundTag tag) {
         ListTag list = new ListTag();
@@ -62,18 +221,36 @@ public class NationData extends SavedData {
 
     public static NationData load(CompoundTag tag) {
         NationData d = new NationData();
+        boolean migrated = false;
         for (Tag t : tag.getList("Nations", Tag.TAG_COMPOUND)) {
-            Nation n = Nation.fromNbt((CompoundTag) t);
-            d.nations.put(n.getId(), n);
+            migrated |= NationFormat.CHAIN.needsUpgrade((CompoundTag) t);
+            d.put(decode((CompoundTag) t));
+        }
+        if (migrated) {
+            LOGGER.info("[DominionCraft] Формат наций обновлён до {}", NationFormat.CHAIN.current());
+            d.setDirty();                // записать обратно один раз
         }
         return d;
     }
 
+    /** Довести запись до текущего формата и декодировать. */
+    private static Nation decode(CompoundTag tag) {
+        return Nation.fromNbt(NationFormat.CHAIN.upgrade(tag));
+    }
+
     /* ───────── accessor ───────── */
 
+    /** SavedData уровня; после первого обращения — чтение поля (см. {@link DominionLevel}). */
     public static NationData get(ServerLevel level) {
-        return level.getDataStorage()
-                .computeIfAbsent(NationData::load, NationData::new, FILE_ID);
+        DominionLevel dl = (DominionLevel) level;
+        NationData d = dl.dominioncraft$getNationData();
+        if (d == null) {
+            d = level.getDataStorage()
+                    .computeIfAbsent(NationData::load, NationData::new, FILE_ID);
+            d.attach(level);
+            dl.dominioncraft$setNationData(d);
+        }
+        return d;
     }
 
 }
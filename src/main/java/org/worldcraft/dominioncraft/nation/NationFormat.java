@@ -0,0 +1,76 @@
+package org.worldcraft.dominioncraft.nation;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import org.worldcraft.dominioncraft.storage.DataFormat;
+
+import java.util.List;
+
+/**
+ * Версии формата нации (запись в {@code dominioncraft_nations.dat},
+ * строка SQL, запись журнала).
+ *
+ * <ol>
+ *   <li>без штампа: {@code NextElect} необязателен; выборы хранят только
+ *       {@code RegEnd}/{@code VoteEnd}; референдум — сокращённые поля
+ *       {@code Q}/{@code End}/{@code Sig}/{@code Votes{V,Y}}, которые
+ *       {@link Referendum#fromNbt} не читает;</li>
+ *   <li>{@code NextElect} всегда есть; выборы — {@code Start} + {@code Phase};
+ *       референдум — формат {@link Referendum#toNbt()}.</li>
+ * </ol>
+ */
+final class NationFormat {
+
+    static final DataFormat CHAIN = new DataFormat("nation", List.of(NationFormat::v1to2));
+
+    /** Префикс вопроса референдума о роспуске (см. {@code /nation delete}). */
+    private static final String DISSOLUTION_PREFIX = "[Роспуск нации]";
+
+    private NationFormat() {}
+
+    private static CompoundTag v1to2(CompoundTag tag) {
+        /* выборы: восстановить начало кампании из длительности регистрации */
+        if (tag.contains("Election", Tag.TAG_COMPOUND)) {
+            CompoundTag e = tag.getCompound("Election");
+            long regEnd  = e.getLong("RegEnd");
+            long voteEnd = e.getLong("VoteEnd");
+            e.putLong("Start", regEnd - (voteEnd - regEnd));
+            e.putString("Phase", Election.Phase.REGISTRATION.name());   // досчитает первый tick()
+            e.remove("RegEnd");
+            e.remove("VoteEnd");
+        }
+
+        /* первые выборы республики — не раньше чем через 14 дней */
+        long next = tag.getLong("NextElect");
+        if (next == 0 && !tag.contains("Election")
+                && GovernmentType.REPUBLIC.name().equals(tag.getString("Gov")))
+            next = NationCommands.TICKS_14_DAYS;
+        tag.putLong("NextElect", next);
+
+        /* референдум: короткие поля → формат Referendum */
+        if (tag.contains("Referendum", Tag.TAG_COMPOUND)) {
+            CompoundTag old = tag.getCompound("Referendum");
+            CompoundTag r = new CompoundTag();
+            String question = old.getString("Q");
+            long end = old.getLong("End");
+            r.putString("Question", question);
+            r.putLong("StartTick", end - NationCommands.TICKS_24_HOURS);
+            r.putLong("EndTick", end);
+            r.putBoolean("Dissolution", question.startsWith(DISSOLUTION_PREFIX));
+            r.put("Signatures", old.getList("Sig", Tag.TAG_INT_ARRAY));
+
+            ListTag votes = new ListTag();
+            for (Tag v : old.getList("Votes", Tag.TAG_COMPOUND)) {
+                CompoundTag ov = (CompoundTag) v;
+                CompoundTag nv = new CompoundTag();
+                nv.putUUID("Voter", ov.getUUID("V"));
+                nv.putBoolean("Yes", ov.getBoolean("Y"));
+                votes.add(nv);
+            }
+            r.put("Votes", votes);
+            tag.put("Referendum", r);
+        }
+        return tag;
+    }
+}
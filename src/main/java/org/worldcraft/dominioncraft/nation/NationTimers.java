@@ -3,10 +3,13 @@ package org.worldcraft.dominioncraft.nation;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.level.ServerPlayer;
+import org.worldcraft.dominioncraft.NameCache;
 import org.worldcraft.dominioncraft.town.Town;
-import org.worldcraft.dominioncraft.town.TownData;
+import org.worldcraft.dominioncraft.town.TownRegistry;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -24,37 +27,45 @@ public final class NationTimers {
             var level = server.overworld();
             long now = level.getGameTime();
             NationData nd = NationData.get(level);
+            // нации, распущенные референдумом: удаляем после обхода nd.all()
+            List<Nation> dissolved = new ArrayList<>();
 
             for (Nation n : nd.all()) {
                 // 1. Тайм-аут заявок и сецессий
-                removeExpiredApplications(server, n, now);
-                removeExpiredSecessions(server, n, now);
+                boolean changed = removeExpiredApplications(server, n, now);
+                changed |= removeExpiredSecessions(server, n, now);
 
                 // 2. Выборы (республика)
                 if (n.getGovernment() == GovernmentType.REPUBLIC) {
-                    handleElection(server, n, now);
+                    changed |= handleElection(server, n, now);
                 }
 
                 // 3. Референдумы (любая нация)
-                handleReferendum(server, n, now);
+                changed |= handleReferendum(server, n, now, dissolved);
+
+                // сохраняем, только если что-то изменилось (распущенную — не сохраняем)
+                if (changed && !dissolved.contains(n)) nd.markChanged(n);
             }
 
-            nd.setDirty(); // сохраняем если что-то изменилось
+            for (Nation n : dissolved) deleteNationAfterReferendum(server, n);
         });
     }
 
     /* ============================= Election ============================= */
 
-    private static void handleElection(net.minecraft.server.MinecraftServer server, Nation n, long now) {
+    /** @return {@code true}, если состояние выборов изменилось */
+    private static boolean handleElection(net.minecraft.server.MinecraftServer server, Nation n, long now) {
+        boolean changed = false;
         if (n.getElection() == null && now >= n.getNextElectionTick()) {
             n.setElection(new Election(now));
             broadcast(server, n, "§6В республике §e" + n.getName()
                     + " §6открылась регистрация кандидатов!");
+            changed = true;
         }
 
         Election e = n.getElection();
         if (e != null) {
-            e.tick(now);
+            changed |= e.tick(now);
 
             if (e.getPhase() == Election.Phase.VOTING && now == e.getRegEndTick()) {
                 broadcast(server, n, "§6Регистрация закрыта, начинается голосование!");
@@ -64,8 +75,7 @@ public final class NationTimers {
                 UUID win = e.getWinner();
                 if (win != null) {
                     n.setLeader(win);
-                    broadcast(server, n, "§e" + server.getProfileCache()
-                            .get(win).map(p -> p.getName()).orElse("Новый лидер")
+                    broadcast(server, n, "§e" + NameCache.resolve(server, win, "Новый лидер")
                             + " §6побеждает на выборах и становится президентом!");
                 } else {
                     broadcast(server, n, "§6Выборы признаны несостоявшимися.");
@@ -74,26 +84,32 @@ public final class NationTimers {
                 n.setNextElectionTick(now + NationCommands.TICKS_14_DAYS);
             }
         }
+        return changed;
     }
 
     /* ============================ Referendum ============================ */
 
-    private static void handleReferendum(net.minecraft.server.MinecraftServer server, Nation n, long now) {
+    /**
+     * @param dissolved сюда добавляется нация, если принят её роспуск
+     * @return {@code true}, если референдум завершился
+     */
+    private static boolean handleReferendum(net.minecraft.server.MinecraftServer server, Nation n, long now,
+                                            List<Nation> dissolved) {
         Referendum ref = n.referendum;
-        if (ref == null) return;
+        if (ref == null) return false;
 
         if (now >= ref.endTick) {
             boolean passed = ref.isPassed();
             if (passed) {
                 broadcast(server, n, "§6Референдум завершён: решение ПРИНЯТО.");
                 if (ref.isDissolutionReferendum()) {
-                    deleteNationAfterReferendum(server, n);
+                    dissolved.add(n);
                 }
             } else {
                 broadcast(server, n, "§6Референдум завершён: решение ОТКЛОНЕНО.");
             }
             n.referendum = null;
-            return;
+            return true;
         }
 
 
@@ -102,16 +118,16 @@ public final class NationTimers {
             broadcast(server, n, "§6Напоминаем: в нации «" + n.getName()
                     + "» идёт референдум!\n§7Голосуйте командой: /nation referendum vote <да/нет>");
         }
+        return false;
     }
 
     // Примерная логика удаления нации после референдума
     private static void deleteNationAfterReferendum(net.minecraft.server.MinecraftServer server, Nation n) {
         var level = server.overworld();
-        TownData td = TownData.get(level);
 
-        // Убираем ссылку на нацию из городов
+        // Убираем ссылку на нацию из городов (в любом измерении)
         for (UUID townId : n.getTowns()) {
-            Town t = td.getTown(townId);
+            Town t = TownRegistry.get(townId);
             if (t != null) t.setNation(null);
         }
 
@@ -121,32 +137,42 @@ public final class NationTimers {
 
     /* ========================= Timeouts/Applications ========================= */
 
-    private static void removeExpiredApplications(net.minecraft.server.MinecraftServer srv,
-                                                  Nation n, long now) {
+    /** @return {@code true}, если хоть одна заявка удалена */
+    private static boolean removeExpiredApplications(net.minecraft.server.MinecraftServer srv,
+                                                     Nation n, long now) {
+        if (n.applications.isEmpty()) return false;
+        boolean changed = false;
         Iterator<Map.Entry<UUID, Application>> it = n.applications.entrySet().iterator();
         while (it.hasNext()) {
             Map.Entry<UUID, Application> en = it.next();
             Application a = en.getValue();
             if (a.millisLeft() > 0) continue;
             it.remove();
-            Town t = TownData.get(srv.overworld()).getTown(a.townId);
+            Town t = TownRegistry.get(a.townId);
             String townName = t != null ? t.getName() : "Город";
             broadcast(srv, n, "§eЗаявка города §b" + townName + " §eистекла и отклонена.");
+            changed = true;
         }
+        return changed;
     }
 
-    private static void removeExpiredSecessions(net.minecraft.server.MinecraftServer srv,
-                                                Nation n, long now) {
+    /** @return {@code true}, если хоть один запрос удалён */
+    private static boolean removeExpiredSecessions(net.minecraft.server.MinecraftServer srv,
+                                                   Nation n, long now) {
+        if (n.secessions.isEmpty()) return false;
+        boolean changed = false;
         Iterator<Map.Entry<UUID, SecessionRequest>> it = n.secessions.entrySet().iterator();
         while (it.hasNext()) {
             Map.Entry<UUID, SecessionRequest> en = it.next();
             SecessionRequest s = en.getValue();
             if (now - (s.created / 50) < NationCommands.TICKS_24_HOURS * 3) continue;
             it.remove();
-            Town t = TownData.get(srv.overworld()).getTown(s.townId);
+            Town t = TownRegistry.get(s.townId);
             String townName = t != null ? t.getName() : "Город";
             broadcast(srv, n, "§eЗапрос на выход города §b" + townName + " §eистёк и отклонён.");
+            changed = true;
         }
+        return changed;
     }
 
     /* ============================ Broadcast ============================ */
@@ -154,10 +180,8 @@ public final class NationTimers {
     /** Всем членам нации */
     private static void broadcast(net.minecraft.server.MinecraftServer srv,
                                   Nation n, String msg) {
-        var level = srv.overworld();
-        TownData td = TownData.get(level);
         for (UUID townId : n.getTowns()) {
-            Town t = td.getTown(townId);
+            Town t = TownRegistry.get(townId);
             if (t != null) {
                 t.getMembers().forEach(uuid -> {
                     ServerPlayer p = srv.getPlayerList().getPlayer(uuid);
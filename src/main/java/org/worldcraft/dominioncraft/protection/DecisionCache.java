@@ -0,0 +1,51 @@
+package org.worldcraft.dominioncraft.protection;
+
+import org.worldcraft.dominioncraft.town.TownPermission;
+
+import java.util.Arrays;
+
+/**
+ * Маленький direct‑mapped кэш решений одного игрока:
+ * (чанк, право) → {@link ProtectionEngine.Decision}.
+ *
+ * <p>Запись действительна, пока совпадает эпоха прав
+ * ({@link org.worldcraft.dominioncraft.town.TownData#permissionEpoch()}) и уровень,
+ * на котором она была получена. Повторная проверка — одно чтение слота.</p>
+ */
+public final class DecisionCache {
+
+    private static final int SIZE = 64;          // степень двойки
+    private static final int MASK = SIZE - 1;
+
+    private final long[] chunks = new long[SIZE];
+    private final byte[] perms  = new byte[SIZE];
+    /** 0 — пустой слот (эпоха никогда не равна 0). */
+    private final int[]  epochs = new int[SIZE];
+    private final ProtectionEngine.Decision[] decisions = new ProtectionEngine.Decision[SIZE];
+
+    /** Уровень, к которому относятся записи (смена измерения = сброс). */
+    private Object level;
+
+    ProtectionEngine.Decision get(Object lvl, long chunk, TownPermission perm, int epoch) {
+        if (lvl != level) {
+            level = lvl;
+            Arrays.fill(epochs, 0);
+            return null;
+        }
+        int i = slot(chunk, perm);
+        return epochs[i] == epoch && chunks[i] == chunk && perms[i] == perm.ordinal()
+                ? decisions[i] : null;
+    }
+
+    void put(long chunk, TownPermission perm, int epoch, ProtectionEngine.Decision d) {
+        int i = slot(chunk, perm);
+        chunks[i]    = chunk;
+        perms[i]     = (byte) perm.ordinal();
+        epochs[i]    = epoch;
+        decisions[i] = d;
+    }
+
+    private static int slot(long chunk, TownPermission perm) {
+        return ((int) ((chunk * 0x9E3779B97F4A7C15L) >>> 58) ^ perm.ordinal()) & MASK;
+    }
+}
@@ -0,0 +1,232 @@
+package org.worldcraft.dominioncraft.protection;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.core.Holder;
+import net.minecraft.core.Registry;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.item.*;
+import net.minecraft.world.level.block.*;
+import net.minecraft.world.level.block.state.BlockState;
+import org.worldcraft.dominioncraft.town.TownPermission;
+
+/**
+ * Классификация блоков и предметов для защиты, посчитанная один раз.
+ *
+ * <p>Для каждого {@link Block} и {@link Item} по id реестра хранится байт
+ * флагов; проверки при клике — чтение массива вместо цепочек {@code instanceof}.
+ * Таблицы строятся после старта сервера и после каждой перезагрузки датапаков.</p>
+ *
+ * <p>Теги датапака:</p>
+ * <ul>
+ *   <li>{@code dominioncraft:<флаг>} — добавляют флаг поверх встроенных правил;</li>
+ *   <li>{@code dominioncraft:override/<флаг>} и {@code dominioncraft:override/none} —
+ *       заменяют результат встроенных правил целиком (несколько override‑тегов
+ *       складываются, {@code none} — без флагов). Так датапак может, например,
+ *       сделать сундук обычным INTERACT‑блоком. У предметов сохраняется только
+ *       признак «ставит блок» (установка всегда требует BUILD).</li>
+ * </ul>
+ */
+public final class PermissionTables {
+
+    /* ---- флаги блоков ---- */
+    private static final byte B_CONTAINER = 1;
+    private static final byte B_FARM      = 2;
+    private static final byte B_INTERACT  = 4;
+    private static final byte B_ENTITY    = 8;   // блок с BlockEntity
+
+    /* ---- флаги предметов ---- */
+    private static final byte I_BLOCK     = 1;   // BlockItem
+    private static final byte I_WORLD     = 2;   // ведро, огниво, огненный заряд, спавн‑яйцо
+    private static final byte I_FARM      = 4;   // мотыга, костная мука, семена‑культуры
+    private static final byte I_FEED      = 8;   // корм для животных
+
+    /* ---- теги датапака ---- */
+    public static final TagKey<Block> CONTAINER_BLOCKS = blockTag("container");
+    public static final TagKey<Block> FARM_BLOCKS      = blockTag("farm");
+    public static final TagKey<Block> INTERACT_BLOCKS  = blockTag("interact");
+    public static final TagKey<Item>  FARM_ITEMS       = itemTag("farm");
+    public static final TagKey<Item>  FEED_ITEMS       = itemTag("animal_feed");
+    public static final TagKey<Item>  WORLD_ITEMS      = itemTag("world_affecting");
+
+    /* ---- override‑теги: заменяют встроенную классификацию ---- */
+    public static final TagKey<Block> OVERRIDE_CONTAINER_BLOCKS = blockTag("override/container");
+    public static final TagKey<Block> OVERRIDE_FARM_BLOCKS      = blockTag("override/farm");
+    public static final TagKey<Block> OVERRIDE_INTERACT_BLOCKS  = blockTag("override/interact");
+    public static final TagKey<Block> OVERRIDE_NONE_BLOCKS      = blockTag("override/none");
+    public static final TagKey<Item>  OVERRIDE_FARM_ITEMS       = itemTag("override/farm");
+    public static final TagKey<Item>  OVERRIDE_FEED_ITEMS       = itemTag("override/animal_feed");
+    public static final TagKey<Item>  OVERRIDE_WORLD_ITEMS      = itemTag("override/world_affecting");
+    public static final TagKey<Item>  OVERRIDE_NONE_ITEMS       = itemTag("override/none");
+
+    private static byte[] blockFlags = null;
+    private static byte[] itemFlags  = null;
+
+    private PermissionTables() {}
+
+    /** Пересборка после старта сервера и /reload. */
+    public static void register() {
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> rebuild());
+        ServerLifecycleEvents.END_DATA_PACK_RELOAD.register((server, resources, success) -> rebuild());
+    }
+
+    /* ────────────────────────── классификация ────────────────────────── */
+
+    /** Правый клик по блоку (Fabric‑событие): контейнер → ферма → взаимодействие → BUILD/INTERACT. */
+    public static TownPermission blockUse(BlockState st, ItemStack held) {
+        byte f = block(st.getBlock());
+        if ((f & B_CONTAINER) != 0) return TownPermission.CONTAINER;
+        if ((f & B_FARM)      != 0) return TownPermission.FARM;
+        if ((f & B_INTERACT)  != 0) return TownPermission.INTERACT;
+        return (item(held.getItem()) & I_BLOCK) != 0 ? TownPermission.BUILD : TownPermission.INTERACT;
+    }
+
+    /** Использование предмета в воздухе: ферма → корм → INTERACT. */
+    public static TownPermission itemUse(ItemStack st) {
+        byte f = item(st.getItem());
+        if ((f & I_FARM) != 0) return TownPermission.FARM;
+        if ((f & I_FEED) != 0) return TownPermission.ANIMAL;
+        return TownPermission.INTERACT;
+    }
+
+    /** Пакет use‑item‑on: установка → опасный предмет → ферма → блок с BlockEntity → INTERACT. */
+    public static TownPermission useItemOn(BlockState st, ItemStack held, boolean placingAttempt) {
+        byte fi = item(held.getItem());
+        byte fb = block(st.getBlock());
+        if (placingAttempt && (fi & I_BLOCK) != 0)  return TownPermission.BUILD;
+        if ((fi & I_WORLD) != 0)                    return TownPermission.BUILD;
+        if ((fi & I_FARM) != 0 || (fb & B_FARM) != 0) return TownPermission.FARM;
+        if ((fb & B_ENTITY) != 0)                   return TownPermission.CONTAINER;
+        return TownPermission.INTERACT;
+    }
+
+    public static boolean isFarmBlock(BlockState st) {
+        return (block(st.getBlock()) & B_FARM) != 0;
+    }
+
+    /** Предмет, способный изменить мир (ставит блоки, жидкость, огонь, мобов). */
+    public static boolean isWorldAffecting(ItemStack st) {
+        return (item(st.getItem()) & (I_WORLD | I_BLOCK)) != 0;
+    }
+
+    /* ────────────────────────── таблицы ────────────────────────── */
+
+    private static byte block(Block b) {
+        byte[] t = blockFlags;
+        if (t == null) t = rebuild()[0];
+        int id = BuiltInRegistries.BLOCK.getId(b);
+        return id >= 0 && id < t.length ? t[id] : 0;
+    }
+
+    private static byte item(Item i) {
+        byte[] t = itemFlags;
+        if (t == null) t = rebuild()[1];
+        int id = BuiltInRegistries.ITEM.getId(i);
+        return id >= 0 && id < t.length ? t[id] : 0;
+    }
+
+    /** Построить обе таблицы заново. @return {блоки, предметы} */
+    public static byte[][] rebuild() {
+        Registry<Block> br = BuiltInRegistries.BLOCK;
+        byte[] blocks = new byte[br.size()];
+        for (Block b : br) blocks[br.getId(b)] = classify(b);
+        addTag(br, blocks, CONTAINER_BLOCKS, B_CONTAINER);
+        addTag(br, blocks, FARM_BLOCKS,      B_FARM);
+        addTag(br, blocks, INTERACT_BLOCKS,  B_INTERACT);
+
+        /* override: итоговые флаги задаёт только тег (B_ENTITY тоже сбрасывается) */
+        byte[] blockOverride = new byte[blocks.length];
+        boolean[] blockOverridden = new boolean[blocks.length];
+        overrideTag(br, blockOverride, blockOverridden, OVERRIDE_CONTAINER_BLOCKS, B_CONTAINER);
+        overrideTag(br, blockOverride, blockOverridden, OVERRIDE_FARM_BLOCKS,      B_FARM);
+        overrideTag(br, blockOverride, blockOverridden, OVERRIDE_INTERACT_BLOCKS,  B_INTERACT);
+        overrideTag(br, blockOverride, blockOverridden, OVERRIDE_NONE_BLOCKS,      (byte) 0);
+        for (int id = 0; id < blocks.length; id++)
+            if (blockOverridden[id]) blocks[id] = blockOverride[id];
+
+        Registry<Item> ir = BuiltInRegistries.ITEM;
+        byte[] items = new byte[ir.size()];
+        for (Item i : ir) items[ir.getId(i)] = classify(i);
+        addTag(ir, items, FARM_ITEMS,  I_FARM);
+        addTag(ir, items, FEED_ITEMS,  I_FEED);
+        addTag(ir, items, WORLD_ITEMS, I_WORLD);
+
+        /* override: сохраняется только I_BLOCK — установка блока всегда BUILD */
+        byte[] itemOverride = new byte[items.length];
+        boolean[] itemOverridden = new boolean[items.length];
+        overrideTag(ir, itemOverride, itemOverridden, OVERRIDE_FARM_ITEMS,  I_FARM);
+        overrideTag(ir, itemOverride, itemOverridden, OVERRIDE_FEED_ITEMS,  I_FEED);
+        overrideTag(ir, itemOverride, itemOverridden, OVERRIDE_WORLD_ITEMS, I_WORLD);
+        overrideTag(ir, itemOverride, itemOverridden, OVERRIDE_NONE_ITEMS,  (byte) 0);
+        for (int id = 0; id < items.length; id++)
+            if (itemOverridden[id]) items[id] = (byte) ((items[id] & I_BLOCK) | itemOverride[id]);
+
+        blockFlags = blocks;
+        itemFlags  = items;
+        return new byte[][] { blocks, items };
+    }
+
+    /** Добавить флаг всем элементам тега. */
+    private static <T> void addTag(Registry<T> reg, byte[] table, TagKey<T> tag, byte flag) {
+        for (Holder<T> h : reg.getTagOrEmpty(tag))
+            table[reg.getId(h.value())] |= flag;
+    }
+
+    /** Отметить элементы тега как переопределённые и собрать их флаги. */
+    private static <T> void overrideTag(Registry<T> reg, byte[] flags, boolean[] overridden,
+                                        TagKey<T> tag, byte flag) {
+        for (Holder<T> h : reg.getTagOrEmpty(tag)) {
+            int id = reg.getId(h.value());
+            flags[id] |= flag;
+            overridden[id] = true;
+        }
+    }
+
+    /* ---------- встроенные правила (бывшие цепочки instanceof) ---------- */
+
+    private static byte classify(Block b) {
+        byte f = 0;
+        if (b instanceof ChestBlock || b instanceof BarrelBlock || b instanceof ShulkerBoxBlock
+                || b instanceof EnderChestBlock || b instanceof AbstractFurnaceBlock
+                || b instanceof HopperBlock || b instanceof DispenserBlock)
+            f |= B_CONTAINER;
+        if (b instanceof FarmBlock || b instanceof CropBlock
+                || b instanceof StemBlock || b instanceof CocoaBlock
+                || b instanceof SweetBerryBushBlock || b instanceof NetherWartBlock)
+            f |= B_FARM;
+        if (b instanceof DoorBlock || b instanceof TrapDoorBlock || b instanceof FenceGateBlock
+                || b instanceof LeverBlock || b instanceof ButtonBlock || b instanceof PressurePlateBlock
+                || b instanceof NoteBlock || b instanceof BellBlock || b instanceof RepeaterBlock
+                || b instanceof ComparatorBlock || b instanceof CakeBlock || b instanceof LecternBlock)
+            f |= B_INTERACT;
+        if (b instanceof EntityBlock)
+            f |= B_ENTITY;
+        return f;
+    }
+
+    private static byte classify(Item i) {
+        byte f = 0;
+        if (i instanceof BlockItem)
+            f |= I_BLOCK;
+        if (i instanceof BucketItem || i instanceof FlintAndSteelItem
+                || i instanceof FireChargeItem || i instanceof SpawnEggItem)
+            f |= I_WORLD;
+        if (i instanceof HoeItem || i == Items.BONE_MEAL
+                || (i instanceof BlockItem bi && bi.getBlock() instanceof CropBlock))
+            f |= I_FARM;
+        if (i == Items.WHEAT || i == Items.CARROT || i == Items.POTATO
+                || i == Items.BEETROOT || i == Items.WHEAT_SEEDS)
+            f |= I_FEED;
+        return f;
+    }
+
+    private static TagKey<Block> blockTag(String path) {
+        return TagKey.create(Registries.BLOCK, new ResourceLocation("dominioncraft", path));
+    }
+
+    private static TagKey<Item> itemTag(String path) {
+        return TagKey.create(Registries.ITEM, new ResourceLocation("dominioncraft", path));
+    }
+}
@@ -0,0 +1,103 @@
+package org.worldcraft.dominioncraft.protection;
+
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.player.Player;
+import org.worldcraft.dominioncraft.DominionPlayer;
+import org.worldcraft.dominioncraft.town.Town;
+import org.worldcraft.dominioncraft.town.TownChunk;
+import org.worldcraft.dominioncraft.town.TownData;
+import org.worldcraft.dominioncraft.town.TownPermission;
+
+/**
+ * Единая проверка прав на территории городов.
+ *
+ * <p>Все события и миксины защиты спрашивают только здесь:
+ * (уровень, игрок, чанк, право) → {@link Decision}. Порядок разрешения:</p>
+ * <ol>
+ *   <li>чанк без владельца — {@link Decision#WILDERNESS};</li>
+ *   <li>право ранга в городе — {@link Decision#RANK};</li>
+ *   <li>персональный override на чанке — {@link Decision#OVERRIDE};</li>
+ *   <li>иначе — {@link Decision#DENIED}.</li>
+ * </ol>
+ *
+ * <p>Решения кэшируются в игроке ({@link DecisionCache}) до смены эпохи прав
+ * {@link TownData#permissionEpoch()}.</p>
+ *
+ * <p>Вызывается только с серверного потока; счётчики решений не синхронизированы.</p>
+ */
+public final class ProtectionEngine {
+
+    /** Итог проверки с причиной. */
+    public enum Decision {
+        WILDERNESS(true),
+        RANK(true),
+        OVERRIDE(true),
+        DENIED(false);
+
+        private final boolean allowed;
+        Decision(boolean allowed) { this.allowed = allowed; }
+
+        public boolean allowed() { return allowed; }
+    }
+
+    /** Сколько раз было принято каждое решение (индекс — ordinal). */
+    private static final long[] COUNTERS = new long[Decision.values().length];
+    /** Сколько решений отдано из кэша игрока. */
+    private static long cacheHits = 0;
+
+    private ProtectionEngine() {}
+
+    /* ────────────────────────── API ────────────────────────── */
+
+    /** Полная проверка с причиной решения. */
+    public static Decision check(ServerLevel lvl, Player pl, long chunkKey, TownPermission perm) {
+        int epoch = TownData.permissionEpoch();
+        DecisionCache cache = ((DominionPlayer) pl).dominioncraft$getDecisionCache();
+
+        Decision d = cache.get(lvl, chunkKey, perm, epoch);
+        if (d != null) {
+            cacheHits++;
+            return record(d);
+        }
+        d = resolve(lvl, pl, chunkKey, perm);
+        cache.put(chunkKey, perm, epoch, d);
+        return record(d);
+    }
+
+    /** Короткая форма: разрешено ли действие. */
+    public static boolean hasAccess(ServerLevel lvl, Player pl, long chunkKey, TownPermission perm) {
+        return check(lvl, pl, chunkKey, perm).allowed();
+    }
+
+    /** PvP‑флаг чанка: в диких землях PvP разрешено. */
+    public static boolean isPvpAllowed(ServerLevel lvl, long chunkKey) {
+        Town town = TownData.get(lvl).getTownByChunk(chunkKey);
+        return town == null || town.isChunkPvp(chunkKey);
+    }
+
+    /* ────────────────────────── метрики ────────────────────────── */
+
+    public static long count(Decision d) { return COUNTERS[d.ordinal()]; }
+    public static long cacheHits()       { return cacheHits; }
+
+    public static void resetCounters() {
+        java.util.Arrays.fill(COUNTERS, 0L);
+        cacheHits = 0;
+    }
+
+    /* ────────────────────────── внутреннее ────────────────────────── */
+
+    private static Decision resolve(ServerLevel lvl, Player pl, long chunkKey, TownPermission perm) {
+        Town town = TownData.get(lvl).getTownByChunk(chunkKey);
+        if (town == null)                           return Decision.WILDERNESS;
+        if (town.hasPermission(pl.getUUID(), perm)) return Decision.RANK;
+        TownChunk tc = town.chunk(chunkKey);
+        if (tc != null && tc.playerHas(pl.getUUID(), perm)) return Decision.OVERRIDE;
+        return Decision.DENIED;
+    }
+
+    private static Decision record(Decision d) {
+        COUNTERS[d.ordinal()]++;
+        return d;
+    }
+}
@@ -0,0 +1,51 @@
+package org.worldcraft.dominioncraft.storage;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Версия формата записи и цепочка миграций к текущей версии.
+ *
+ * <p>Каждая запись (город, нация, индекс) несёт поле {@link #KEY}; записи
+ * без него — версия 1. Шаг {@code steps[i]} переводит версию {@code i+1}
+ * в {@code i+2}, поэтому декодерам достаточно знать только текущий
+ * формат, а старые файлы обновляются один раз и записываются обратно.</p>
+ */
+public final class DataFormat {
+
+    public static final String KEY = "DataFormat";
+
+    private final String name;
+    private final List<UnaryOperator<CompoundTag>> steps;
+
+    public DataFormat(String name, List<UnaryOperator<CompoundTag>> steps) {
+        this.name  = name;
+        this.steps = List.copyOf(steps);
+    }
+
+    public int current() { return steps.size() + 1; }
+
+    public static int versionOf(CompoundTag tag) {
+        return tag.contains(KEY, Tag.TAG_INT) ? tag.getInt(KEY) : 1;
+    }
+
+    public boolean needsUpgrade(CompoundTag tag) { return versionOf(tag) != current(); }
+
+    /** Проставить текущую версию (при записи). */
+    public CompoundTag stamp(CompoundTag tag) {
+        tag.putInt(KEY, current());
+        return tag;
+    }
+
+    /** Довести запись до текущей версии; запись из будущей версии — ошибка. */
+    public CompoundTag upgrade(CompoundTag tag) {
+        int v = versionOf(tag);
+        if (v > current())
+            throw new IllegalStateException(name + " format " + v + " is newer than supported " + current());
+        while (v < current()) tag = steps.get(v++ - 1).apply(tag);
+        return stamp(tag);
+    }
+}
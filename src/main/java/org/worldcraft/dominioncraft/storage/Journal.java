@@ -0,0 +1,107 @@
+package org.worldcraft.dominioncraft.storage;
+
+import com.mojang.logging.LogUtils;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import org.slf4j.Logger;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Журнал изменений (write‑ahead log) между автосейвами.
+ *
+ * <p>Каждая запись — {@code [int длина][byte op][UUID][NBT?]}: «объект
+ * {@code id} теперь такой» ({@link #PUT}) или «объекта больше нет»
+ * ({@link #DEL}). Записи идемпотентны, поэтому повторное проигрывание
+ * поверх снимка безопасно. Обрезанный хвост (падение посреди записи)
+ * при чтении отбрасывается.</p>
+ *
+ * <p>Дописывание и сброс выполняются только в I/O‑потоке {@link SaveQueue};
+ * сброс делает пакет сохранения сразу после записи снимка — так журнал
+ * «сворачивается» в базовые файлы.</p>
+ */
+public final class Journal {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    public static final byte PUT = 1;
+    public static final byte DEL = 2;
+
+    /** Одна запись журнала; {@code tag} — только для {@link #PUT}. */
+    public record Entry(byte op, UUID id, CompoundTag tag) {
+        public static Entry put(UUID id, CompoundTag tag) { return new Entry(PUT, id, tag); }
+        public static Entry del(UUID id)                  { return new Entry(DEL, id, null); }
+    }
+
+    private final File file;
+
+    public Journal(File file) { this.file = file; }
+
+    /** Дописать записи в конец журнала и сбросить их на диск. */
+    public void append(List<Entry> entries) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            ByteArrayOutputStream rec = new ByteArrayOutputStream();
+            for (Entry e : entries) {
+                rec.reset();
+                DataOutputStream r = new DataOutputStream(rec);
+                r.writeByte(e.op());
+                r.writeLong(e.id().getMostSignificantBits());
+                r.writeLong(e.id().getLeastSignificantBits());
+                if (e.op() == PUT) NbtIo.write(e.tag(), r);
+                out.writeInt(rec.size());
+                rec.writeTo(out);
+            }
+
+            try (FileOutputStream fos = new FileOutputStream(file, true)) {
+                bytes.writeTo(fos);
+                fos.getChannel().force(false);
+            }
+        } catch (IOException e) {
+            LOGGER.error("[DominionCraft] Не удалось дописать журнал {}", file, e);
+        }
+    }
+
+    /** Удалить журнал — всё в нём уже есть в свежем снимке. */
+    public void reset() {
+        if (file.exists() && !file.delete())
+            LOGGER.error("[DominionCraft] Не удалось очистить журнал {}", file);
+    }
+
+    /** Прочитать все целые записи (при загрузке мира). */
+    public List<Entry> read() {
+        List<Entry> out = new ArrayList<>();
+        if (!file.isFile()) return out;
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                int len;
+                try {
+                    len = in.readInt();
+                } catch (EOFException end) {
+                    break;
+                }
+                byte[] buf = new byte[len];
+                try {
+                    in.readFully(buf);
+                } catch (EOFException torn) {
+                    LOGGER.warn("[DominionCraft] Журнал {} обрезан, хвост отброшен", file);
+                    break;
+                }
+
+                DataInputStream r = new DataInputStream(new ByteArrayInputStream(buf));
+                byte op = r.readByte();
+                UUID id = new UUID(r.readLong(), r.readLong());
+                out.add(new Entry(op, id, op == PUT ? NbtIo.read(r) : null));
+            }
+        } catch (IOException e) {
+            LOGGER.error("[DominionCraft] Не удалось прочитать журнал {}", file, e);
+        }
+        return out;
+    }
+}
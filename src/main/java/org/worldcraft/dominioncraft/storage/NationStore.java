@@ -0,0 +1,35 @@
+package org.worldcraft.dominioncraft.storage;
+
+import net.minecraft.nbt.CompoundTag;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Backend хранения наций под {@code NationData}.
+ *
+ * <p>{@link #writeNations} вызывается только из I/O‑потока {@link SaveQueue}.</p>
+ */
+public interface NationStore {
+
+    /**
+     * Сохранённые нации. Пустой список — backend пуст, и остаются нации,
+     * прочитанные самим SavedData из {@code dominioncraft_nations.dat}.
+     */
+    List<CompoundTag> loadNations();
+
+    /**
+     * Нужен ли backend'у полный набор наций при каждом сохранении
+     * (файловый формат переписывается целиком).
+     */
+    default boolean wantsFullSnapshot() { return false; }
+
+    /**
+     * Записать изменённые нации и удалить удалённые — одним пакетом.
+     *
+     * @return {@code false}, если что‑то не записалось (журнал не сбрасывается)
+     */
+    boolean writeNations(Map<UUID, CompoundTag> writes, Collection<UUID> deletes);
+}
@@ -0,0 +1,53 @@
+package org.worldcraft.dominioncraft.storage;
+
+import com.mojang.logging.LogUtils;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtUtils;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * NBT‑backend наций: один файл {@code dominioncraft_nations.dat}, который
+ * читает сам SavedData и который переписывается целиком.
+ */
+public final class NbtNationStore implements NationStore {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private final File file;
+
+    public NbtNationStore(File file) { this.file = file; }
+
+    /** Файл уже прочитан SavedData‑загрузчиком. */
+    @Override
+    public List<CompoundTag> loadNations() { return List.of(); }
+
+    @Override
+    public boolean wantsFullSnapshot() { return true; }
+
+    @Override
+    public boolean writeNations(Map<UUID, CompoundTag> writes, Collection<UUID> deletes) {
+        ListTag list = new ListTag();
+        list.addAll(writes.values());
+        CompoundTag data = new CompoundTag();
+        data.put("Nations", list);
+
+        CompoundTag root = new CompoundTag();
+        root.put("data", data);
+        NbtUtils.addCurrentDataVersion(root);
+        try {
+            SaveQueue.writeAtomic(file, root);
+            return true;
+        } catch (IOException e) {
+            LOGGER.error("[DominionCraft] Не удалось сохранить {}", file, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.worldcraft.dominioncraft.storage;
+
+import net.minecraft.core.UUIDUtil;
+import net.minecraft.nbt.*;
+
+import java.io.*;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Потоковое чтение NBT без построения дерева тегов.
+ *
+ * <p>Читатель идёт по полям compound'а ({@link #nextField()}) и сам решает,
+ * как прочитать значение: примитивы и массивы — напрямую из потока,
+ * редкие вложенные структуры — целиком через {@link #readCompound()},
+ * незнакомые поля — {@link #skip(int)}.</p>
+ *
+ * <pre>
+ * in.beginRoot();
+ * for (int type; (type = in.nextField()) != Tag.TAG_END; ) {
+ *     switch (in.name()) { ... default -> in.skip(type); }
+ * }
+ * </pre>
+ */
+public final class NbtStream implements Closeable {
+
+    private final DataInputStream in;
+    private String name = "";
+    private int listType = Tag.TAG_END;
+
+    private NbtStream(InputStream in) {
+        this.in = new DataInputStream(in);
+    }
+
+    /** Сжатый файл ({@link NbtIo#writeCompressed}). */
+    public static NbtStream open(File file) throws IOException {
+        return compressed(new FileInputStream(file));
+    }
+
+    /** Сжатый поток (файл шарда, блоб SQLite). */
+    public static NbtStream compressed(InputStream raw) throws IOException {
+        return new NbtStream(new BufferedInputStream(new GZIPInputStream(raw, 8192)));
+    }
+
+    /** Уже прочитанный тег (журнал, старый индекс) — через его бинарную форму. */
+    public static NbtStream of(CompoundTag tag) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NbtIo.write(tag, new DataOutputStream(bytes));
+        return new NbtStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    /* ────────────────────────── структура ────────────────────── */
+
+    /** Войти в корневой compound. */
+    public void beginRoot() throws IOException {
+        if (in.readByte() != Tag.TAG_COMPOUND) throw new IOException("root is not a compound");
+        in.readUTF();
+    }
+
+    /** Тип следующего поля текущего compound'а; {@link Tag#TAG_END} — конец. */
+    public int nextField() throws IOException {
+        int type = in.readByte();
+        name = type == Tag.TAG_END ? "" : in.readUTF();
+        return type;
+    }
+
+    /** Имя поля, прочитанного последним {@link #nextField()}. */
+    public String name() { return name; }
+
+    /**
+     * Заголовок списка: тип элементов и их число.
+     *
+     * @return число элементов; тип — {@link #listType()}
+     */
+    public int beginList() throws IOException {
+        listType = in.readByte();
+        return in.readInt();
+    }
+
+    /** Тип элементов последнего списка из {@link #beginList()}. */
+    public int listType() { return listType; }
+
+    /* ────────────────────────── значения ─────────────────────── */
+
+    public byte   readByte()   throws IOException { return in.readByte(); }
+    public int    readInt()    throws IOException { return in.readInt(); }
+    public long   readLong()   throws IOException { return in.readLong(); }
+    public String readString() throws IOException { return in.readUTF(); }
+
+    public boolean readBoolean() throws IOException { return in.readByte() != 0; }
+
+    public int[] readIntArray() throws IOException {
+        int[] a = new int[in.readInt()];
+        for (int i = 0; i < a.length; i++) a[i] = in.readInt();
+        return a;
+    }
+
+    public long[] readLongArray() throws IOException {
+        long[] a = new long[in.readInt()];
+        for (int i = 0; i < a.length; i++) a[i] = in.readLong();
+        return a;
+    }
+
+    /** UUID в формате {@link NbtUtils#createUUID} (int[4]). */
+    public UUID readUUID() throws IOException {
+        int[] a = readIntArray();
+        if (a.length != 4) throw new IOException("bad UUID length " + a.length);
+        return UUIDUtil.uuidFromIntArray(a);
+    }
+
+    /** Значение‑compound целиком (для редких вложенных структур). */
+    public CompoundTag readCompound() throws IOException {
+        return CompoundTag.TYPE.load(in, 0, NbtAccounter.UNLIMITED);
+    }
+
+    /** Пропустить значение типа {@code type}. */
+    public void skip(int type) throws IOException {
+        TagTypes.getType(type).load(in, 0, NbtAccounter.UNLIMITED);
+    }
+
+    @Override
+    public void close() throws IOException { in.close(); }
+}
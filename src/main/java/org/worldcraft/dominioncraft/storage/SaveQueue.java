@@ -0,0 +1,91 @@
+package org.worldcraft.dominioncraft.storage;
+
+import com.mojang.logging.LogUtils;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Фоновая запись данных мода.
+ *
+ * <p>Главный поток собирает снимок (свежие {@link CompoundTag}, которые больше
+ * никто не меняет), а кодирование, сжатие и атомарная замена файла идут в
+ * отдельном I/O‑потоке. У каждого хранилища своя очередь: новое сохранение
+ * ждёт завершения предыдущего, так что два сохранения одного хранилища
+ * никогда не пересекаются.</p>
+ */
+public final class SaveQueue {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    /** Один поток на весь мод: записи выполняются строго по очереди. */
+    private static final ExecutorService IO = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "DominionCraft-IO");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final String name;
+    private CompletableFuture<Void> inFlight = CompletableFuture.completedFuture(null);
+
+    public SaveQueue(String name) { this.name = name; }
+
+    /**
+     * Поставить пакет записи в очередь следом за предыдущим пакетом этого
+     * хранилища. Вызывающий поток никогда не ждёт: пакет цепляется к
+     * {@code inFlight}, ошибки перехватываются, так что цепочка не рвётся.
+     */
+    public void submit(Runnable batch) {
+        inFlight = inFlight.thenRunAsync(() -> {
+            try {
+                batch.run();
+            } catch (Throwable t) {
+                LOGGER.error("[DominionCraft] Ошибка фонового сохранения {}", name, t);
+            }
+        }, IO);
+    }
+
+    /**
+     * Поставить мелкую запись (журнал) без ожидания: порядок относительно
+     * {@link #submit} сохраняется — I/O‑поток один.
+     */
+    public void enqueue(Runnable task) {
+        inFlight = CompletableFuture.runAsync(() -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                LOGGER.error("[DominionCraft] Ошибка фоновой записи {}", name, t);
+            }
+        }, IO);
+    }
+
+    /** Последняя поставленная запись этого хранилища ещё не выполнена. */
+    public boolean busy() {
+        return !inFlight.isDone();
+    }
+
+    /** Дождаться всех поставленных записей (остановка сервера). */
+    public static void flush() {
+        CompletableFuture.runAsync(() -> {}, IO).join();
+    }
+
+    /** Записать NBT во временный файл и атомарно заменить им целевой. */
+    public static void writeAtomic(File target, CompoundTag tag) throws IOException {
+        File dir = target.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs())
+            throw new IOException("cannot create " + dir);
+
+        File tmp = new File(dir, target.getName() + ".tmp");
+        NbtIo.writeCompressed(tag, tmp);
+        Files.move(tmp.toPath(), target.toPath(),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
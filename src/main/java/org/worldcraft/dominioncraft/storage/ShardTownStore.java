@@ -0,0 +1,31 @@
+package org.worldcraft.dominioncraft.storage;
+
+import net.minecraft.nbt.CompoundTag;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/** NBT‑backend городов: шарды {@link TownShards} в каталоге данных измерения. */
+public final class ShardTownStore implements TownStore {
+
+    private final File dir;
+
+    public ShardTownStore(File dir) { this.dir = dir; }
+
+    @Override
+    public int loadTowns(TownReader reader) {
+        return TownShards.readAll(dir, reader);
+    }
+
+    @Override
+    public boolean writeTowns(Map<UUID, CompoundTag> writes, Collection<UUID> deletes) {
+        boolean ok = true;
+        for (Map.Entry<UUID, CompoundTag> e : writes.entrySet())
+            ok &= TownShards.write(dir, e.getKey(), e.getValue());
+        for (UUID id : deletes)
+            ok &= TownShards.delete(dir, id);
+        return ok;
+    }
+}
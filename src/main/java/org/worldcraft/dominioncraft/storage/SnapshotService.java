@@ -0,0 +1,274 @@
+package org.worldcraft.dominioncraft.storage;
+
+import com.mojang.logging.LogUtils;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.storage.LevelResource;
+import org.slf4j.Logger;
+import org.worldcraft.dominioncraft.mixin.DimensionDataStorageAccessor;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Ротируемые снимки данных городов и наций:
+ * {@code <мир>/dominioncraft_snapshots/snapshot-<время>-<повод>.zip}.
+ *
+ * <p>Снимок — это файлы мода из каталогов data всех измерений (шарды,
+ * индексы, журналы, SQLite‑база через {@code VACUUM INTO}), пути внутри
+ * архива — относительно корня мира. Архив пишется в I/O‑потоке
+ * {@link SaveQueue} после всех ранее поставленных записей, поэтому тик
+ * не блокируется, а снимок согласован на границе тика.</p>
+ *
+ * <p>Восстановление не трогает живой мир: {@link #requestRestore} оставляет
+ * метку, а при следующем запуске (до загрузки уровней) текущие файлы
+ * сохраняются в снимок {@code pre-restore} и заменяются содержимым архива.</p>
+ */
+public final class SnapshotService {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private static final String DIR     = "dominioncraft_snapshots";
+    private static final String PENDING = "restore.pending";
+    private static final String PREFIX  = "snapshot-";
+    private static final String DB_FILE = "dominioncraft.db";
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final SaveQueue QUEUE = new SaveQueue("snapshots");
+
+    /* настройки читаются при старте, а не каждый тик */
+    private static int intervalTicks = 0;
+    private static int keep = 0;
+
+    private SnapshotService() {}
+
+    public static void register() {
+        ServerLifecycleEvents.SERVER_STARTING.register(SnapshotService::applyPendingRestore);
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> {
+            keep = StorageConfig.snapshotKeep();
+            intervalTicks = StorageConfig.snapshotIntervalMinutes() * 60 * 20;
+        });
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (keep <= 0 || server.getTickCount() % intervalTicks != 0) return;
+            take(server, "auto");
+        });
+    }
+
+    /* ────────────────────────── снимок ───────────────────────── */
+
+    /**
+     * Поставить снимок в очередь I/O. Тик никогда не ждёт: если предыдущий
+     * снимок ещё пишется, этот пропускается.
+     */
+    public static void take(MinecraftServer server, String reason) {
+        if (QUEUE.busy()) {
+            LOGGER.warn("[DominionCraft] Предыдущий снимок ещё пишется — снимок пропущен");
+            return;
+        }
+        Path root = worldRoot(server);
+        List<File> folders = new ArrayList<>();
+        for (ServerLevel level : server.getAllLevels())
+            folders.add(((DimensionDataStorageAccessor) level.getDataStorage()).dominioncraft$getDataFolder());
+
+        int keepNow = keep;
+        QUEUE.enqueue(() -> {
+            try {
+                writeZip(root, folders, reason);
+                rotate(root.resolve(DIR).toFile(), keepNow);
+            } catch (IOException e) {
+                LOGGER.error("[DominionCraft] Не удалось сделать снимок данных", e);
+            }
+        });
+    }
+
+    private static File writeZip(Path root, Collection<File> folders, String reason) throws IOException {
+        File dir = root.resolve(DIR).toFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("cannot create " + dir);
+
+        File zip = new File(dir, PREFIX + LocalDateTime.now().format(STAMP) + "-" + reason + ".zip");
+        File tmp = new File(dir, zip.getName() + ".tmp");
+        try (ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            for (File data : folders) {
+                File[] files = data.listFiles((d, name) -> isOurs(name));
+                if (files == null) continue;
+                for (File f : files) {
+                    if (f.isDirectory()) {
+                        File[] shards = f.listFiles((d, name) -> isOurs(name) || name.endsWith(".dat"));
+                        if (shards != null) for (File s : shards) addEntry(out, root, s, s);
+                    } else if (f.getName().equals(DB_FILE)) {
+                        addDatabase(out, root, data, f);
+                    } else {
+                        addEntry(out, root, f, f);
+                    }
+                }
+            }
+        }
+        Files.move(tmp.toPath(), zip.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        LOGGER.info("[DominionCraft] Снимок данных: {}", zip.getName());
+        return zip;
+    }
+
+    /** Живую базу копируем через VACUUM INTO, закрытую — как есть. */
+    private static void addDatabase(ZipOutputStream out, Path root, File data, File db) throws IOException {
+        SqliteStore open = StorageConfig.openDatabase(data);
+        if (open == null) {
+            addEntry(out, root, db, db);
+            return;
+        }
+        File copy = new File(data, DB_FILE + ".snapshot.tmp");
+        try {
+            Files.deleteIfExists(copy.toPath());
+            open.backupTo(copy);
+            addEntry(out, root, db, copy);
+        } catch (SQLException e) {
+            throw new IOException("sqlite backup failed", e);
+        } finally {
+            Files.deleteIfExists(copy.toPath());
+        }
+    }
+
+    /** Записать {@code source} под именем файла {@code as} (путь от корня мира). */
+    private static void addEntry(ZipOutputStream out, Path root, File as, File source) throws IOException {
+        String name = root.relativize(as.toPath().toAbsolutePath().normalize()).toString().replace('\\', '/');
+        out.putNextEntry(new ZipEntry(name));
+        Files.copy(source.toPath(), out);
+        out.closeEntry();
+    }
+
+    /** Файлы мода в каталоге data (без временных и служебных файлов SQLite). */
+    private static boolean isOurs(String name) {
+        return name.startsWith("dominioncraft")
+                && !name.endsWith(".tmp")
+                && !name.endsWith("-wal") && !name.endsWith("-shm") && !name.endsWith("-journal");
+    }
+
+    private static void rotate(File dir, int keep) {
+        List<File> all = snapshotFiles(dir);
+        for (int i = keep; i < all.size(); i++)
+            if (!all.get(i).delete())
+                LOGGER.error("[DominionCraft] Не удалось удалить старый снимок {}", all.get(i));
+    }
+
+    /** Снимки, новые первыми (имя начинается с метки времени). */
+    private static List<File> snapshotFiles(File dir) {
+        File[] files = dir.listFiles((d, name) -> name.startsWith(PREFIX) && name.endsWith(".zip"));
+        if (files == null) return new ArrayList<>();
+        List<File> out = new ArrayList<>(Arrays.asList(files));
+        out.sort(Comparator.comparing(File::getName).reversed());
+        return out;
+    }
+
+    /* ────────────────────────── список / восстановление ──────── */
+
+    /** Имена снимков, новые первыми. */
+    public static List<String> list(MinecraftServer server) {
+        List<String> names = new ArrayList<>();
+        for (File f : snapshotFiles(worldRoot(server).resolve(DIR).toFile())) names.add(f.getName());
+        return names;
+    }
+
+    /** Размер снимка в байтах (0 — нет такого). */
+    public static long size(MinecraftServer server, String name) {
+        return worldRoot(server).resolve(DIR).resolve(name).toFile().length();
+    }
+
+    /**
+     * Запланировать восстановление при следующем запуске.
+     *
+     * @return {@code false}, если снимка нет
+     */
+    public static boolean requestRestore(MinecraftServer server, String name) {
+        Path dir = worldRoot(server).resolve(DIR);
+        if (!list(server).contains(name)) return false;
+        try {
+            Files.writeString(dir.resolve(PENDING), name, StandardCharsets.UTF_8);
+            return true;
+        } catch (IOException e) {
+            LOGGER.error("[DominionCraft] Не удалось записать метку восстановления", e);
+            return false;
+        }
+    }
+
+    /** SERVER_STARTING: уровни ещё не загружены — можно подменить файлы. */
+    private static void applyPendingRestore(MinecraftServer server) {
+        Path root = worldRoot(server);
+        Path marker = root.resolve(DIR).resolve(PENDING);
+        if (!Files.exists(marker)) return;
+
+        try {
+            String name = Files.readString(marker, StandardCharsets.UTF_8).trim();
+            File zip = root.resolve(DIR).resolve(name).toFile();
+            if (!zip.isFile()) {
+                LOGGER.error("[DominionCraft] Снимок {} для восстановления не найден", name);
+                return;
+            }
+
+            /* каталоги data, которые затрагивает снимок */
+            Set<File> folders = new LinkedHashSet<>();
+            try (ZipInputStream in = new ZipInputStream(new BufferedInputStream(new FileInputStream(zip)))) {
+                for (ZipEntry e; (e = in.getNextEntry()) != null; ) {
+                    Path p = root.resolve(e.getName()).normalize();
+                    while (p.getParent() != null && !p.getParent().getFileName().toString().equals("data"))
+                        p = p.getParent();
+                    if (p.getParent() != null) folders.add(p.getParent().toFile());
+                }
+            }
+
+            writeZip(root, folders, "pre-restore");
+            for (File data : folders) clear(data);
+            extract(root, zip);
+            LOGGER.info("[DominionCraft] Данные восстановлены из снимка {}", name);
+        } catch (IOException e) {
+            LOGGER.error("[DominionCraft] Восстановление из снимка не удалось", e);
+        } finally {
+            try {
+                Files.deleteIfExists(marker);
+            } catch (IOException e) {
+                LOGGER.error("[DominionCraft] Не удалось удалить метку восстановления", e);
+            }
+        }
+    }
+
+    /** Удалить текущие файлы мода в каталоге data (включая служебные файлы SQLite). */
+    private static void clear(File data) throws IOException {
+        File[] files = data.listFiles((d, name) -> name.startsWith("dominioncraft"));
+        if (files == null) return;
+        for (File f : files) {
+            if (f.isDirectory()) {
+                File[] inner = f.listFiles();
+                if (inner != null) for (File s : inner) Files.deleteIfExists(s.toPath());
+            }
+            Files.deleteIfExists(f.toPath());
+        }
+    }
+
+    private static void extract(Path root, File zip) throws IOException {
+        try (ZipInputStream in = new ZipInputStream(new BufferedInputStream(new FileInputStream(zip)))) {
+            for (ZipEntry e; (e = in.getNextEntry()) != null; ) {
+                Path target = root.resolve(e.getName()).normalize();
+                if (!target.startsWith(root)) {
+                    LOGGER.error("[DominionCraft] Пропущен подозрительный путь в снимке: {}", e.getName());
+                    continue;
+                }
+                Files.createDirectories(target.getParent());
+                Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    private static Path worldRoot(MinecraftServer server) {
+        return server.getWorldPath(LevelResource.ROOT).toAbsolutePath().normalize();
+    }
+}
@@ -0,0 +1,272 @@
+package org.worldcraft.dominioncraft.storage;
+
+import com.mojang.logging.LogUtils;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.Tag;
+import org.slf4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Встроенная SQLite‑база измерения ({@code <data>/dominioncraft.db}).
+ *
+ * <p>Сам город / нация хранится NBT‑блобом в {@code towns.data} /
+ * {@code nations.data}; рядом — индексированные таблицы клеймов,
+ * участников и голосов для точечных запросов. Каждое сохранение —
+ * одна транзакция с пакетными вставками.</p>
+ *
+ * <pre>
+ * towns        (id PK, name, nation, data)
+ * town_claims  (chunk PK, town)          — chunk = ChunkPos.toLong()
+ * town_members (player PK, town, rank)
+ * nations      (id PK, name, data)
+ * nation_votes (nation, kind, voter, choice) — kind: election / referendum
+ * </pre>
+ */
+public final class SqliteStore implements TownStore, NationStore, AutoCloseable {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS towns (id TEXT PRIMARY KEY, name TEXT NOT NULL, nation TEXT, data BLOB NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS town_claims (chunk INTEGER PRIMARY KEY, town TEXT NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS town_claims_town ON town_claims(town)",
+            "CREATE TABLE IF NOT EXISTS town_members (player TEXT PRIMARY KEY, town TEXT NOT NULL, rank TEXT NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS town_members_town ON town_members(town)",
+            "CREATE TABLE IF NOT EXISTS nations (id TEXT PRIMARY KEY, name TEXT NOT NULL, data BLOB NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS nation_votes (nation TEXT NOT NULL, kind TEXT NOT NULL, voter TEXT NOT NULL,"
+                    + " choice TEXT NOT NULL, PRIMARY KEY (nation, kind, voter))"
+    };
+
+    private final File file;
+    private final Connection conn;
+
+    public SqliteStore(File file) throws SQLException {
+        this.file = file;
+        try {
+            Class.forName("org.sqlite.JDBC");   // сервис‑лоадер не видит драйвер в classloader'е мода
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("SQLite driver not found", e);
+        }
+        this.conn = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+        try (Statement st = conn.createStatement()) {
+            st.execute("PRAGMA journal_mode=WAL");
+            st.execute("PRAGMA synchronous=NORMAL");
+            for (String sql : SCHEMA) st.execute(sql);
+        }
+        conn.setAutoCommit(false);
+        conn.commit();
+    }
+
+    /* ────────────────────────── towns ────────────────────────── */
+
+    @Override
+    public synchronized int loadTowns(TownReader reader) {
+        int read = 0;
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT data FROM towns")) {
+            while (rs.next()) {
+                try (NbtStream in = NbtStream.compressed(new ByteArrayInputStream(rs.getBytes(1)))) {
+                    reader.read(in);
+                    read++;
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.error("[DominionCraft] Битая запись города в {}", file, e);
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            LOGGER.error("[DominionCraft] Не удалось прочитать {}", file, e);
+        }
+        return read;
+    }
+
+    @Override
+    public synchronized boolean writeTowns(Map<UUID, CompoundTag> writes, Collection<UUID> deletes) {
+        try (PreparedStatement upsert  = conn.prepareStatement(
+                     "INSERT OR REPLACE INTO towns (id, name, nation, data) VALUES (?, ?, ?, ?)");
+             PreparedStatement delTown = conn.prepareStatement("DELETE FROM towns WHERE id = ?");
+             PreparedStatement delClaims  = conn.prepareStatement("DELETE FROM town_claims WHERE town = ?");
+             PreparedStatement delMembers = conn.prepareStatement("DELETE FROM town_members WHERE town = ?");
+             PreparedStatement addClaim  = conn.prepareStatement(
+                     "INSERT OR REPLACE INTO town_claims (chunk, town) VALUES (?, ?)");
+             PreparedStatement addMember = conn.prepareStatement(
+                     "INSERT OR REPLACE INTO town_members (player, town, rank) VALUES (?, ?, ?)")) {
+
+            for (UUID id : deletes) {
+                String key = id.toString();
+                delTown.setString(1, key);    delTown.addBatch();
+                delClaims.setString(1, key);  delClaims.addBatch();
+                delMembers.setString(1, key); delMembers.addBatch();
+            }
+            for (Map.Entry<UUID, CompoundTag> e : writes.entrySet()) {
+                String key = e.getKey().toString();
+                CompoundTag tc = e.getValue();
+
+                upsert.setString(1, key);
+                upsert.setString(2, tc.getString("Name"));
+                upsert.setString(3, tc.hasUUID("Nation") ? tc.getUUID("Nation").toString() : null);
+                upsert.setBytes(4, toBlob(tc));
+                upsert.addBatch();
+
+                delClaims.setString(1, key);  delClaims.addBatch();
+                delMembers.setString(1, key); delMembers.addBatch();
+
+                for (long chunk : tc.getLongArray("ClaimKeys")) {
+                    addClaim.setLong(1, chunk); addClaim.setString(2, key); addClaim.addBatch();
+                }
+                for (Tag o : tc.getList("Overrides", Tag.TAG_COMPOUND)) {
+                    addClaim.setLong(1, ((CompoundTag) o).getLong("Pos"));
+                    addClaim.setString(2, key);
+                    addClaim.addBatch();
+                }
+                for (Tag m : tc.getList("Members", Tag.TAG_COMPOUND)) {
+                    CompoundTag mc = (CompoundTag) m;
+                    addMember.setString(1, mc.getUUID("U").toString());
+                    addMember.setString(2, key);
+                    addMember.setString(3, mc.getString("R"));
+                    addMember.addBatch();
+                }
+            }
+
+            /* порядок важен: сначала чистка, потом вставки */
+            delTown.executeBatch();
+            delClaims.executeBatch();
+            delMembers.executeBatch();
+            upsert.executeBatch();
+            addClaim.executeBatch();
+            addMember.executeBatch();
+            conn.commit();
+            return true;
+        } catch (SQLException | IOException e) {
+            rollback();
+            LOGGER.error("[DominionCraft] Не удалось сохранить города в {}", file, e);
+            return false;
+        }
+    }
+
+    /* ────────────────────────── nations ──────────────────────── */
+
+    @Override
+    public synchronized List<CompoundTag> loadNations() {
+        return loadBlobs("SELECT data FROM nations");
+    }
+
+    @Override
+    public synchronized boolean writeNations(Map<UUID, CompoundTag> writes, Collection<UUID> deletes) {
+        try (PreparedStatement upsert = conn.prepareStatement(
+                     "INSERT OR REPLACE INTO nations (id, name, data) VALUES (?, ?, ?)");
+             PreparedStatement delNation = conn.prepareStatement("DELETE FROM nations WHERE id = ?");
+             PreparedStatement delVotes  = conn.prepareStatement("DELETE FROM nation_votes WHERE nation = ?");
+             PreparedStatement addVote   = conn.prepareStatement(
+                     "INSERT OR REPLACE INTO nation_votes (nation, kind, voter, choice) VALUES (?, ?, ?, ?)")) {
+
+            for (UUID id : deletes) {
+                delNation.setString(1, id.toString()); delNation.addBatch();
+                delVotes.setString(1, id.toString());  delVotes.addBatch();
+            }
+            for (Map.Entry<UUID, CompoundTag> e : writes.entrySet()) {
+                String key = e.getKey().toString();
+                CompoundTag n = e.getValue();
+
+                upsert.setString(1, key);
+                upsert.setString(2, n.getString("Name"));
+                upsert.setBytes(3, toBlob(n));
+                upsert.addBatch();
+
+                delVotes.setString(1, key); delVotes.addBatch();
+                for (Tag v : n.getCompound("Election").getList("Votes", Tag.TAG_COMPOUND)) {
+                    CompoundTag vc = (CompoundTag) v;
+                    addVote(addVote, key, "election", vc.getUUID("V"), vc.getUUID("C").toString());
+                }
+                for (Tag v : n.getCompound("Referendum").getList("Votes", Tag.TAG_COMPOUND)) {
+                    CompoundTag vc = (CompoundTag) v;
+                    addVote(addVote, key, "referendum", vc.getUUID("Voter"), vc.getBoolean("Yes") ? "yes" : "no");
+                }
+            }
+
+            delNation.executeBatch();
+            delVotes.executeBatch();
+            upsert.executeBatch();
+            addVote.executeBatch();
+            conn.commit();
+            return true;
+        } catch (SQLException | IOException e) {
+            rollback();
+            LOGGER.error("[DominionCraft] Не удалось сохранить нации в {}", file, e);
+            return false;
+        }
+    }
+
+    private static void addVote(PreparedStatement ps, String nation, String kind,
+                                UUID voter, String choice) throws SQLException {
+        ps.setString(1, nation);
+        ps.setString(2, kind);
+        ps.setString(3, voter.toString());
+        ps.setString(4, choice);
+        ps.addBatch();
+    }
+
+    /* ────────────────────────── утилиты ──────────────────────── */
+
+    /** Согласованная копия базы в {@code target} (для снимков). */
+    public synchronized void backupTo(File target) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("VACUUM INTO ?")) {
+            conn.commit();
+            conn.setAutoCommit(true);       // VACUUM нельзя внутри транзакции
+            ps.setString(1, target.getAbsolutePath());
+            ps.execute();
+        } finally {
+            conn.setAutoCommit(false);
+        }
+    }
+
+    private List<CompoundTag> loadBlobs(String sql) {
+        List<CompoundTag> out = new ArrayList<>();
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) {
+                try {
+                    out.add(NbtIo.readCompressed(new ByteArrayInputStream(rs.getBytes(1))));
+                } catch (IOException e) {
+                    LOGGER.error("[DominionCraft] Битая запись в {}", file, e);
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            LOGGER.error("[DominionCraft] Не удалось прочитать {}", file, e);
+        }
+        return out;
+    }
+
+    private static byte[] toBlob(CompoundTag tag) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NbtIo.writeCompressed(tag, out);
+        return out.toByteArray();
+    }
+
+    private void rollback() {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            LOGGER.error("[DominionCraft] Откат транзакции {} не удался", file, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            LOGGER.error("[DominionCraft] Не удалось закрыть {}", file, e);
+        }
+    }
+}
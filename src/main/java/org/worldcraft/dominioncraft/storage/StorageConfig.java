@@ -0,0 +1,137 @@
+package org.worldcraft.dominioncraft.storage;
+
+import com.mojang.logging.LogUtils;
+import net.fabricmc.loader.api.FabricLoader;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Выбор backend'а хранения — {@code config/dominioncraft-storage.properties}:
+ *
+ * <pre>
+ * backend=nbt      # шарды + .dat в каталоге data измерения (по умолчанию)
+ * backend=sqlite   # &lt;data&gt;/dominioncraft.db
+ *
+ * snapshots.keep=10              # сколько снимков хранить (0 — выключено)
+ * snapshots.intervalMinutes=60   # как часто снимать
+ * </pre>
+ *
+ * <p>Если выбранная база ещё пуста, данные один раз переносятся из NBT‑файлов.</p>
+ */
+public final class StorageConfig {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final String FILE = "dominioncraft-storage.properties";
+    private static final String DB_FILE = "dominioncraft.db";
+
+    public enum Backend { NBT, SQLITE }
+
+    /** Открытые базы: каталог data измерения → база (одна на города и нации). */
+    private static final Map<File, SqliteStore> OPEN = new HashMap<>();
+
+    /** Настройки, прочитанные один раз за запуск сервера (сбрасываются в {@link #closeAll()}). */
+    private static Properties props = null;
+
+    private StorageConfig() {}
+
+    /** Настройки; файл читается при первом обращении (при отсутствии — создаётся). */
+    private static synchronized Properties props() {
+        if (props == null) props = load();
+        return props;
+    }
+
+    private static Properties load() {
+        Path path = FabricLoader.getInstance().getConfigDir().resolve(FILE);
+        Properties props = new Properties();
+        try {
+            if (Files.exists(path)) {
+                try (Reader r = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    props.load(r);
+                }
+            } else {
+                props.setProperty("backend", "nbt");
+                props.setProperty("snapshots.keep", "10");
+                props.setProperty("snapshots.intervalMinutes", "60");
+                try (Writer w = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                    props.store(w, "DominionCraft storage backend: nbt | sqlite");
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("[DominionCraft] Не удалось прочитать {}", path, e);
+        }
+        return props;
+    }
+
+    private static int intProp(String key, int def) {
+        try {
+            return Integer.parseInt(props().getProperty(key, String.valueOf(def)).trim());
+        } catch (NumberFormatException e) {
+            LOGGER.error("[DominionCraft] Неверное значение {}, используется {}", key, def);
+            return def;
+        }
+    }
+
+    public static int snapshotKeep()            { return intProp("snapshots.keep", 10); }
+    public static int snapshotIntervalMinutes() { return Math.max(1, intProp("snapshots.intervalMinutes", 60)); }
+
+    /** Выбранный backend. */
+    public static Backend backend() {
+        String v = props().getProperty("backend", "nbt").trim().toUpperCase(Locale.ROOT);
+        try {
+            return Backend.valueOf(v);
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("[DominionCraft] Неизвестный backend '{}', используется nbt", v);
+            return Backend.NBT;
+        }
+    }
+
+    /** Хранилище городов для каталога data измерения. */
+    public static TownStore townStore(File dataFolder, String shardDir) {
+        SqliteStore db = backend() == Backend.SQLITE ? sqlite(dataFolder) : null;
+        return db != null ? db : new ShardTownStore(new File(dataFolder, shardDir));
+    }
+
+    /** Хранилище наций для каталога data измерения. */
+    public static NationStore nationStore(File dataFolder, String fileId) {
+        SqliteStore db = backend() == Backend.SQLITE ? sqlite(dataFolder) : null;
+        return db != null ? db : new NbtNationStore(new File(dataFolder, fileId + ".dat"));
+    }
+
+    /** База измерения; {@code null} — открыть не удалось (остаёмся на NBT). */
+    private static synchronized SqliteStore sqlite(File dataFolder) {
+        SqliteStore db = OPEN.get(dataFolder);
+        if (db != null) return db;
+        try {
+            db = new SqliteStore(new File(dataFolder, DB_FILE));
+            OPEN.put(dataFolder, db);
+            return db;
+        } catch (SQLException e) {
+            LOGGER.error("[DominionCraft] Не удалось открыть SQLite в {}, используется nbt", dataFolder, e);
+            return null;
+        }
+    }
+
+    /** Открытая база измерения или {@code null} (для снимков). */
+    public static synchronized SqliteStore openDatabase(File dataFolder) {
+        return OPEN.get(dataFolder);
+    }
+
+    /** Закрыть базы (после {@link SaveQueue#flush()} при остановке сервера). */
+    public static synchronized void closeAll() {
+        OPEN.values().forEach(SqliteStore::close);
+        OPEN.clear();
+        props = null;                       // следующий запуск сервера перечитает файл
+    }
+}
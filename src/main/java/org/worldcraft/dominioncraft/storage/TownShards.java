@@ -0,0 +1,95 @@
+package org.worldcraft.dominioncraft.storage;
+
+import com.mojang.logging.LogUtils;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Шардированное хранение городов: один сжатый NBT‑файл на город,
+ * {@code <data>/dominioncraft_towns/<uuid>.dat}.
+ *
+ * <p>Сохранение пишет только изменённые города, поэтому стоимость
+ * автосейва зависит от числа изменений, а не от размера мира.</p>
+ */
+public final class TownShards {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final String EXT = ".dat";
+
+    private TownShards() {}
+
+    public static File file(File dir, UUID townId) {
+        return new File(dir, townId + EXT);
+    }
+
+    /**
+     * Прочитать все шарды каталога потоком; битые файлы пропускаются с ошибкой в логе.
+     *
+     * @return число прочитанных шардов
+     */
+    public static int readAll(File dir, TownStore.TownReader reader) {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(EXT));   // *.dat.tmp не подходит
+        if (files == null) return 0;
+
+        int read = 0;
+        for (File f : files) {
+            try (NbtStream in = NbtStream.open(f)) {
+                reader.read(in);
+                read++;
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("[DominionCraft] Не удалось прочитать шард города {}", f, e);
+            }
+        }
+        return read;
+    }
+
+    /**
+     * Однократно обновить шарды, записанные старой версией формата, и
+     * записать их обратно (до потокового чтения, которое знает только
+     * текущий формат).
+     *
+     * @return число обновлённых шардов
+     */
+    public static int migrate(File dir, DataFormat format) {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(EXT));
+        if (files == null) return 0;
+
+        int migrated = 0;
+        for (File f : files) {
+            try {
+                CompoundTag tag = NbtIo.readCompressed(f);
+                if (!format.needsUpgrade(tag)) continue;
+                SaveQueue.writeAtomic(f, format.upgrade(tag));
+                migrated++;
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("[DominionCraft] Не удалось обновить шард города {}", f, e);
+            }
+        }
+        return migrated;
+    }
+
+    /** Записать шард (вызывается из I/O‑потока {@link SaveQueue}). */
+    public static boolean write(File dir, UUID townId, CompoundTag tag) {
+        try {
+            SaveQueue.writeAtomic(file(dir, townId), tag);
+            return true;
+        } catch (IOException e) {
+            LOGGER.error("[DominionCraft] Не удалось сохранить город {}", townId, e);
+            return false;
+        }
+    }
+
+    public static boolean delete(File dir, UUID townId) {
+        File f = file(dir, townId);
+        if (f.exists() && !f.delete()) {
+            LOGGER.error("[DominionCraft] Не удалось удалить шард города {}", f);
+            return false;
+        }
+        return true;
+    }
+}
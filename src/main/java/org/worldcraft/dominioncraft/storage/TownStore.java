@@ -0,0 +1,39 @@
+package org.worldcraft.dominioncraft.storage;
+
+import net.minecraft.nbt.CompoundTag;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Backend хранения городов под {@code TownData}.
+ *
+ * <p>Города передаются в виде NBT одного города (тот же формат, что в
+ * шардах и журнале), поэтому backend не знает о {@code Town}.
+ * {@link #writeTowns} вызывается только из I/O‑потока {@link SaveQueue}.</p>
+ */
+public interface TownStore {
+
+    /** Читатель одного города из потока NBT (см. {@link NbtStream}). */
+    @FunctionalInterface
+    interface TownReader {
+        void read(NbtStream in) throws IOException;
+    }
+
+    /**
+     * Прочитать все сохранённые города потоком (при подключении измерения).
+     * Ошибка одного города логируется и не мешает остальным.
+     *
+     * @return число прочитанных городов
+     */
+    int loadTowns(TownReader reader);
+
+    /**
+     * Записать изменённые города и удалить удалённые — одним пакетом.
+     *
+     * @return {@code false}, если что‑то не записалось (журнал не сбрасывается)
+     */
+    boolean writeTowns(Map<UUID, CompoundTag> writes, Collection<UUID> deletes);
+}
@@ -0,0 +1,186 @@
+package org.worldcraft.dominioncraft.town;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.world.level.ChunkPos;
+
+/**
+ * Сетка владения чанками, разбитая на регион‑тайлы 32×32 чанка.
+ *
+ * <p>Каждый тайл — плоский {@code int[1024]} с handle города (+1, чтобы 0
+ * означал «дикие земли»). Тайлы создаются только там, где есть клеймы, и
+ * удаляются, когда в них не остаётся ни одного клейма.</p>
+ *
+ * <p>Соседние чанки почти всегда лежат в том же тайле, поэтому проверки
+ * «4 соседа» ({@link #neighbourMask}) обходятся чтением одного массива.</p>
+ *
+ * <p>Каждое изменение тайла получает новую версию из общего счётчика
+ * {@link #modCount()} — по ней синхронизация карты клеймов с клиентами
+ * находит изменившиеся регионы.</p>
+ */
+public final class ClaimGrid {
+
+    /** Сторона тайла в чанках (степень двойки). */
+    public static final int TILE_SHIFT = 5;
+    public static final int TILE_SIZE  = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+
+    /** Результат для чанка без владельца. */
+    public static final int NO_TOWN = -1;
+
+    /* биты для {@link #neighbourMask} */
+    public static final int NORTH = 1; // z - 1
+    public static final int EAST  = 2; // x + 1
+    public static final int SOUTH = 4; // z + 1
+    public static final int WEST  = 8; // x - 1
+
+    /** Один регион 32×32. */
+    private static final class Tile {
+        final long key;
+        final int[] cells = new int[TILE_SIZE * TILE_SIZE];
+        int count;
+        int version;
+
+        Tile(long key) { this.key = key; }
+    }
+
+    /** ключ региона → тайл. */
+    private final Long2ObjectOpenHashMap<Tile> tiles = new Long2ObjectOpenHashMap<>();
+
+    /* кэш последнего запроса: повторные проверки в том же регионе не трогают map */
+    private Tile lastTile = null;
+    private long lastMissKey = Long.MIN_VALUE;
+
+    /** Счётчик изменений; версия тайла — значение счётчика при его последнем изменении. */
+    private int modCount = 0;
+
+    /* ────────────────────────── ключи ────────────────────────── */
+
+    /** Ключ региона, которому принадлежит чанк. */
+    public static long regionKey(int cx, int cz) {
+        return ChunkPos.asLong(cx >> TILE_SHIFT, cz >> TILE_SHIFT);
+    }
+
+    private static int cellIndex(int cx, int cz) {
+        return ((cz & TILE_MASK) << TILE_SHIFT) | (cx & TILE_MASK);
+    }
+
+    /* ────────────────────────── чтение ───────────────────────── */
+
+    /** handle владельца по ключу {@link ChunkPos#toLong()} (горячий путь, с кэшем). */
+    public int get(long chunkKey) {
+        int cx = ChunkPos.getX(chunkKey), cz = ChunkPos.getZ(chunkKey);
+        long rk = regionKey(cx, cz);
+
+        Tile t = lastTile;
+        if (t == null || t.key != rk) {
+            if (rk == lastMissKey) return NO_TOWN;          // пустой регион
+            t = tiles.get(rk);
+            if (t == null) {
+                lastMissKey = rk;
+                return NO_TOWN;
+            }
+            lastTile = t;
+        }
+        return t.cells[cellIndex(cx, cz)] - 1;
+    }
+
+    /** handle владельца чанка (cx, cz) или {@link #NO_TOWN}. */
+    public int get(int cx, int cz) {
+        Tile t = tiles.get(regionKey(cx, cz));
+        return t == null ? NO_TOWN : t.cells[cellIndex(cx, cz)] - 1;
+    }
+
+    public boolean isClaimed(int cx, int cz) { return get(cx, cz) != NO_TOWN; }
+
+    public boolean isEmpty() { return tiles.isEmpty(); }
+
+    /** Растёт при любом изменении сетки. */
+    public int modCount() { return modCount; }
+
+    /** Версия тайла региона; 0 — тайла нет (весь регион — дикие земли). */
+    public int tileVersion(long regionKey) {
+        Tile t = tiles.get(regionKey);
+        return t == null ? 0 : t.version;
+    }
+
+    /**
+     * Ячейки тайла региона (handle + 1, индекс — {@code (lz << TILE_SHIFT) | lx})
+     * или {@code null}. Только чтение.
+     */
+    public int[] tileCells(long regionKey) {
+        Tile t = tiles.get(regionKey);
+        return t == null ? null : t.cells;
+    }
+
+    /**
+     * Какие из 4 соседей чанка (cx, cz) принадлежат городу {@code handle}.
+     *
+     * @return битовая маска из {@link #NORTH}, {@link #EAST}, {@link #SOUTH}, {@link #WEST}
+     */
+    public int neighbourMask(int cx, int cz, int handle) {
+        int lx = cx & TILE_MASK, lz = cz & TILE_MASK;
+
+        /* быстрый путь: все соседи внутри одного тайла */
+        if (lx > 0 && lx < TILE_MASK && lz > 0 && lz < TILE_MASK) {
+            Tile t = tiles.get(regionKey(cx, cz));
+            if (t == null) return 0;
+            int v = handle + 1, i = cellIndex(cx, cz), mask = 0;
+            if (t.cells[i - TILE_SIZE] == v) mask |= NORTH;
+            if (t.cells[i + 1]         == v) mask |= EAST;
+            if (t.cells[i + TILE_SIZE] == v) mask |= SOUTH;
+            if (t.cells[i - 1]         == v) mask |= WEST;
+            return mask;
+        }
+
+        int mask = 0;
+        if (get(cx, cz - 1) == handle) mask |= NORTH;
+        if (get(cx + 1, cz) == handle) mask |= EAST;
+        if (get(cx, cz + 1) == handle) mask |= SOUTH;
+        if (get(cx - 1, cz) == handle) mask |= WEST;
+        return mask;
+    }
+
+    /* ────────────────────────── запись ───────────────────────── */
+
+    /** Записать владельца; {@code false}, если чанк уже занят. */
+    boolean put(long chunkKey, int handle) {
+        int cx = ChunkPos.getX(chunkKey), cz = ChunkPos.getZ(chunkKey);
+        long rk = regionKey(cx, cz);
+
+        Tile t = tiles.get(rk);
+        if (t == null) {
+            t = new Tile(rk);
+            tiles.put(rk, t);
+            if (lastMissKey == rk) lastMissKey = Long.MIN_VALUE;
+        }
+        int i = cellIndex(cx, cz);
+        if (t.cells[i] != 0) return false;
+        t.cells[i] = handle + 1;
+        t.count++;
+        t.version = ++modCount;
+        return true;
+    }
+
+    /** Снять владельца; пустой тайл освобождается. */
+    void remove(long chunkKey) {
+        int cx = ChunkPos.getX(chunkKey), cz = ChunkPos.getZ(chunkKey);
+        long rk = regionKey(cx, cz);
+
+        Tile t = tiles.get(rk);
+        if (t == null) return;
+        int i = cellIndex(cx, cz);
+        if (t.cells[i] == 0) return;
+        t.cells[i] = 0;
+        t.version = ++modCount;
+        if (--t.count == 0) {
+            tiles.remove(rk);
+            if (lastTile == t) lastTile = null;
+        }
+    }
+
+    /** Данные чанка изменились без смены владельца (override‑флаги). */
+    void touch(long chunkKey) {
+        Tile t = tiles.get(regionKey(ChunkPos.getX(chunkKey), ChunkPos.getZ(chunkKey)));
+        if (t != null) t.version = ++modCount;
+    }
+}
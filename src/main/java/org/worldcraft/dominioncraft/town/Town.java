@@ -1,7 +1,11 @@
 package org.worldcraft.dominioncraft.town;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.level.ChunkPos;
+import org.worldcraft.dominioncraft.NameCache;
 
 import java.util.*;
 
@@ -19,6 +23,14 @@ public class Town {
     private final UUID mayor;
     private UUID nationId = null;
 
+    /** Компактный номер города внутри {@link TownData} (индекс клеймов). */
+    private int handle = -1;
+    /** Хранилище, в котором зарегистрирован город (для индекса участников). */
+    private TownData owner = null;
+
+    /** Растёт при каждом {@link TownData#markDirty} — по нему HUD видит изменения. */
+    private int version = 0;
+
     private boolean townPvp = false;
     private boolean townExplosion = false;
     private boolean open = false; // по умолчанию закрыт
@@ -34,31 +46,42 @@ public class Town {
     /** Ранг каждого участника. */
     private final Map<UUID, TownRank> ranks = new HashMap<>();
 
-    /** Права, привязанные к каждому рангу. */
-    public final Map<TownRank, EnumSet<TownPermission>> rankPerms = new EnumMap<>(TownRank.class);
+    /** Права каждого ранга: маска {@link TownPermission#bit}, индекс — {@link TownRank#ordinal()}. */
+    private final int[] rankMasks = new int[TownRank.values().length];
 
-    /** Все заклеймленные чанки. */
-    private final Map<ChunkPos, TownChunk> claims = new HashMap<>();
+    /** Все заклеймленные чанки ({@link ChunkPos#toLong()}). */
+    private final LongOpenHashSet claims = new LongOpenHashSet();
+
+    /**
+     * Override‑данные только тех чанков, которые их имеют. Обычный клейм —
+     * просто ключ в {@link #claims}; {@link TownChunk} создаётся при первом
+     * изменении чанка командой ({@link #editChunk}).
+     */
+    private final Long2ObjectOpenHashMap<TownChunk> overrides = new Long2ObjectOpenHashMap<>();
 
     /** Активные приглашения (UUID игроков). */
     private final Set<UUID> invites = new HashSet<>();
 
-    public void setTownExplosion(boolean flag) { this.townExplosion = flag; }
+    public void setTownExplosion(boolean flag) { this.townExplosion = flag; changed(); }
     public boolean getTownExplosion() { return townExplosion; }
 
     public UUID getNation()        { return nationId; }
 
-    public void setNation(UUID id) { this.nationId = id;}
+    public void setNation(UUID id) { this.nationId = id; changed(); }
 
         public boolean isOpen() {
         return open;
     }
     public void setOpen(boolean open) {
         this.open = open;
+        changed();
     }
 
     public boolean isChunkExplosion(ChunkPos pos) {
-        TownChunk tc = claims.get(pos);
+        return isChunkExplosion(pos.toLong());
+    }
+    public boolean isChunkExplosion(long chunkKey) {
+        TownChunk tc = overrides.get(chunkKey);
         return tc != null && tc.getExplosion() != null ? tc.getExplosion() : townExplosion;
     }
 
@@ -75,8 +98,8 @@ public class Town {
         addMember(mayor, TownRank.MAYOR);
 
         /* ---------- базовые права рангов ---------- */
-        rankPerms.put(TownRank.MAYOR, EnumSet.allOf(TownPermission.class));
-        rankPerms.put(TownRank.ASSISTANT, EnumSet.of(
+        rankMasks[TownRank.MAYOR.ordinal()] = TownPermission.ALL;
+        rankMasks[TownRank.ASSISTANT.ordinal()] = TownPermission.maskOf(
                 TownPermission.BUILD, TownPermission.BREAK,
                 TownPermission.CONTAINER, TownPermission.INTERACT,
                 TownPermission.FARM, TownPermission.ANIMAL,
@@ -85,11 +108,11 @@ public class Town {
                 TownPermission.CHUNK_PERM, TownPermission.MANAGE_PVP,
                 TownPermission.CHUNK_PVP, TownPermission.DELETE,
                 TownPermission.EXPLOSION, TownPermission.CHUNK_EXPLOSION
-        ));
+        );
 
         // У MEMBER и RECRUIT по умолчанию нет никаких прав!
-        rankPerms.put(TownRank.MEMBER, EnumSet.noneOf(TownPermission.class));
-        rankPerms.put(TownRank.RECRUIT, EnumSet.noneOf(TownPermission.class));
+        rankMasks[TownRank.MEMBER.ordinal()]  = 0;
+        rankMasks[TownRank.RECRUIT.ordinal()] = 0;
     }
 
     /* ------------------------------------------------------------------ */
@@ -101,6 +124,9 @@ public class Town {
         members.add(player);
         ranks.put(player, rank != null ? rank : TownRank.MEMBER);
         invites.remove(player);
+        if (owner != null) owner.indexMember(player, this);
+        TownData.bumpEpoch();
+        changed();
     }
 
     /** Добавить игрока как MEMBER (без явного ранга) */
@@ -112,6 +138,9 @@ public class Town {
     public void removeMember(UUID player) {
         members.remove(player);
         ranks.remove(player);
+        if (owner != null) owner.unindexMember(player, this);
+        TownData.bumpEpoch();
+        changed();
     }
 
     /** Получить ранг игрока, или null если не состоит в городе. */
@@ -119,24 +148,40 @@ public class Town {
         return ranks.get(player); // null если игрок не состоит
     }
 
+    /** Ранг для показа: имя ранга или «—». */
+    public String getRankLabel(UUID player) {
+        TownRank r = ranks.get(player);
+        return r == null ? "—" : r.name();
+    }
+
     /** Изменить ранг уже состоящего участника. */
     public void setRank(UUID player, TownRank rank) {
         if (members.contains(player)) ranks.put(player, rank);
+        TownData.bumpEpoch();
+        changed();
     }
 
     /** Проверка глобального (рангового) права. */
     public boolean hasPermission(UUID player, TownPermission perm) {
         TownRank rank = getRank(player);
-        if (rank == null) return false;
-        return rankPerms
-                .getOrDefault(rank, EnumSet.noneOf(TownPermission.class))
-                .contains(perm);
+        return rank != null && (rankMasks[rank.ordinal()] & perm.bit) != 0;
+    }
+
+    /** Маска прав ранга. */
+    public int getRankMask(TownRank rank) { return rankMasks[rank.ordinal()]; }
+
+    /** Выдать или забрать право у ранга. */
+    public void setRankPerm(TownRank rank, TownPermission perm, boolean value) {
+        if (value) rankMasks[rank.ordinal()] |=  perm.bit;
+        else       rankMasks[rank.ordinal()] &= ~perm.bit;
+        TownData.bumpEpoch();
+        changed();
     }
 
     /* ---------- приглашения ---------- */
 
-    public void addInvite(UUID player)        { invites.add(player); }
-    public void removeInvite(UUID player)     { invites.remove(player); }
+    public void addInvite(UUID player)        { invites.add(player); changed(); }
+    public void removeInvite(UUID player)     { invites.remove(player); changed(); }
     public boolean hasInvite(UUID player)     { return invites.contains(player); }
     public Set<UUID> getInvites()             { return invites; }
 
@@ -144,11 +189,14 @@ public class Town {
     /*                             PvP-флаги                               */
     /* ------------------------------------------------------------------ */
 
-    public void setTownPvp(boolean flag) { this.townPvp = flag; }
+    public void setTownPvp(boolean flag) { this.townPvp = flag; changed(); }
     public boolean getTownPvp()          { return townPvp; }
 
     public boolean isChunkPvp(ChunkPos pos) {
-        TownChunk tc = claims.get(pos);
+        return isChunkPvp(pos.toLong());
+    }
+    public boolean isChunkPvp(long chunkKey) {
+        TownChunk tc = overrides.get(chunkKey);
         return tc != null && tc.getPvp() != null ? tc.getPvp() : townPvp;
     }
 
@@ -156,24 +204,57 @@ public class Town {
     /*                              клеймы                                 */
     /* ------------------------------------------------------------------ */
 
-    void claim(ChunkPos pos) { claims.putIfAbsent(pos, new TownChunk(pos)); }
-    void putChunk(TownChunk ch) { claims.put(ch.getPos(), ch); }
-    void unclaim(ChunkPos pos) { claims.remove(pos); }
-    public boolean owns(ChunkPos pos) { return claims.containsKey(pos); }
-    public TownChunk chunk(ChunkPos pos) { return claims.get(pos); }
+    void claim(long chunkKey) { claims.add(chunkKey); }
+    void claim(ChunkPos pos) { claim(pos.toLong()); }
+    /** Клейм с override‑данными (загрузка); пустые записи не хранятся. */
+    void putChunk(TownChunk ch) {
+        long key = ch.getPos().toLong();
+        claims.add(key);
+        if (ch.hasOverrides()) overrides.put(key, ch);
+    }
+    void unclaim(ChunkPos pos) {
+        claims.remove(pos.toLong());
+        overrides.remove(pos.toLong());
+    }
+    public boolean owns(ChunkPos pos) { return claims.contains(pos.toLong()); }
+    public boolean owns(long chunkKey) { return claims.contains(chunkKey); }
+
+    /** Override‑данные чанка или {@code null}, если их нет (обычный клейм или чужой чанк). */
+    public TownChunk chunk(ChunkPos pos) { return overrides.get(pos.toLong()); }
+    public TownChunk chunk(long chunkKey) { return overrides.get(chunkKey); }
+
+    /**
+     * Override‑данные чанка для изменения: создаются при первом обращении.
+     *
+     * @return {@code null}, если чанк не принадлежит городу
+     */
+    public TownChunk editChunk(ChunkPos pos) {
+        long key = pos.toLong();
+        if (!claims.contains(key)) return null;
+        return overrides.computeIfAbsent(key, k -> new TownChunk(pos));
+    }
+
+    /** Убрать запись чанка, если после изменения в ней не осталось override'ов. */
+    void trimChunk(ChunkPos pos) {
+        TownChunk tc = overrides.get(pos.toLong());
+        if (tc != null && !tc.hasOverrides()) overrides.remove(pos.toLong());
+    }
+
     public int getClaimCount() { return claims.size(); }
-    public Collection<TownChunk> allChunks() {
-        return Collections.unmodifiableCollection(claims.values());
+    /** Чанки с override‑данными (только чтение). */
+    public Collection<TownChunk> overrideChunks() {
+        return Collections.unmodifiableCollection(overrides.values());
     }
+    /** Ключи {@link ChunkPos#toLong()} всех клеймов (только чтение). */
+    public LongSet claimKeys() { return claims; }
 
     /* ------------------------------------------------------------------ */
     /*                         утилитные методы                            */
     /* ------------------------------------------------------------------ */
 
+    /** Ник мэра из {@link NameCache} (не блокирует). */
     public String getMayorName(MinecraftServer srv) {
-        return srv.getProfileCache().get(mayor)
-                .map(com.mojang.authlib.GameProfile::getName)
-                .orElse(mayor.toString());
+        return NameCache.get(srv, mayor);
     }
 
     /* ------------------------------------------------------------------ */
@@ -181,7 +262,17 @@ public class Town {
     /* ------------------------------------------------------------------ */
 
     public UUID getId()           { return id;      }
+    public int  getHandle()       { return handle;  }
+    public int  getVersion()      { return version; }
+    void        bumpVersion()     { version++; }
+    void        setHandle(int h)  { this.handle = h; }
+    void        setOwner(TownData d) { this.owner = d; }
+
+    /** Отметить город изменённым — попадёт в ближайшее сохранение. */
+    void changed() { if (owner != null) owner.markDirty(this); }
     public String getName()       { return name;    }
+    /** Только через {@link TownData#renameTown} — там индекс имён. */
+    void          setName(String n) { this.name = n; }
     public UUID getMayor()        { return mayor;   }
     public Set<UUID> getMembers() { return Collections.unmodifiableSet(members); }
 }
@@ -1,12 +1,16 @@
 package org.worldcraft.dominioncraft.town;
 
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMaps;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.minecraft.nbt.*;
 import net.minecraft.world.level.ChunkPos;
 
 import java.util.*;
 
 /**
- * Данные о клейм-чанке.
+ * Override‑данные клейм-чанка. Существуют только у чанков, где что‑то
+ * переопределено (см. {@link Town#editChunk}); обычный клейм — просто ключ.
  *
  * <p>Содержит:</p>
  * <ul>
@@ -25,14 +29,11 @@ public class TownChunk {
     /** Координаты чанка. */
     private final ChunkPos pos;
 
-    /** Override флаг для взрывов (null — наследует город, true/false — override). */
-    private Boolean explosionOverride = null;
+    /** Override PvP/взрывов: биты {@code F_*} (как в NBT‑поле {@code Flags}). */
+    private byte flags = 0;
 
-    /** PvP-override: {@code true} / {@code false} / {@code null} (наследует город). */
-    private Boolean pvpOverride = null;
-
-    /** Персональные права игроков на этом чанке. */
-    private final Map<UUID, EnumSet<TownPermission>> playerPerms = new HashMap<>();
+    /** Персональные права игроков: UUID → маска {@link TownPermission#bit}; создаётся лениво. */
+    private Object2IntOpenHashMap<UUID> playerPerms = null;
 
     /* ------------------------------------------------------------------ */
     /*                            конструктор                              */
@@ -41,8 +42,19 @@ public class TownChunk {
     public TownChunk(ChunkPos pos) {
         this.pos = pos;
     }
-    public Map<UUID, EnumSet<TownPermission>> getPlayerPerms() {
-        return playerPerms;
+    /** Персональные маски прав (только чтение). */
+    public Object2IntMap<UUID> getPlayerPerms() {
+        return playerPerms == null ? Object2IntMaps.emptyMap() : Object2IntMaps.unmodifiable(playerPerms);
+    }
+
+    private Boolean flag(int set, int value) {
+        return (flags & set) == 0 ? null : (flags & value) != 0;
+    }
+
+    private void setFlag(int set, int value, Boolean flag) {
+        int f = flags & ~(set | value);
+        if (flag != null) f |= set | (flag ? value : 0);
+        flags = (byte) f;
     }
 
     /* ------------------------------------------------------------------ */
@@ -52,10 +64,10 @@ public class TownChunk {
     /**
      * Установить локальный флаг для взрывов (null — сброс, наследовать город).
      */
-    public void setExplosion(Boolean flag) { this.explosionOverride = flag; }
+    public void setExplosion(Boolean flag) { setFlag(F_EXPL_SET, F_EXPL, flag); }
 
     /** @return локальный флаг для взрывов; null — наследует город. */
-    public Boolean getExplosion() { return explosionOverride; }
+    public Boolean getExplosion() { return flag(F_EXPL_SET, F_EXPL); }
 
     /* ------------------------------------------------------------------ */
     /*                           PvP-флаг                                  */
@@ -67,12 +79,12 @@ public class TownChunk {
      * @param flag {@code true}/{@code false} — задать явно, {@code null} — сброс (наследовать город)
      */
     public void setPvp(Boolean flag) {
-        this.pvpOverride = flag;
+        setFlag(F_PVP_SET, F_PVP, flag);
     }
 
     /** @return локальный PvP-флаг; {@code null}, если наследует город. */
     public Boolean getPvp() {
-        return pvpOverride;
+        return flag(F_PVP_SET, F_PVP);
     }
 
     /* ------------------------------------------------------------------ */
@@ -87,9 +99,14 @@ public class TownChunk {
      * @param value  {@code true} — выдать, {@code false} — забрать
      */
     public void setPlayerPerm(UUID player, TownPermission perm, boolean value) {
-        playerPerms.computeIfAbsent(player, k -> EnumSet.noneOf(TownPermission.class));
-        if (value) playerPerms.get(player).add(perm);
-        else       playerPerms.get(player).remove(perm);
+        int mask = playerPerms == null ? 0 : playerPerms.getInt(player);
+        mask = value ? mask | perm.bit : mask & ~perm.bit;
+        if (mask != 0) putPerm(player, mask);
+        else if (playerPerms != null) {
+            playerPerms.removeInt(player);
+            if (playerPerms.isEmpty()) playerPerms = null;
+        }
+        TownData.bumpEpoch();
     }
 
     /**
@@ -100,55 +117,82 @@ public class TownChunk {
      * @return {@code true}, если право выдано индивидуально
      */
     public boolean playerHas(UUID player, TownPermission perm) {
-        return playerPerms
-                .getOrDefault(player, EnumSet.noneOf(TownPermission.class))
-                .contains(perm);
+        return playerPerms != null && (playerPerms.getInt(player) & perm.bit) != 0;
+    }
+
+    private void putPerm(UUID player, int mask) {
+        if (playerPerms == null) playerPerms = new Object2IntOpenHashMap<>(2);
+        playerPerms.put(player, mask);
     }
 
     /* ------------------------------------------------------------------ */
     /*                      сериализация / десериализация                 */
     /* ------------------------------------------------------------------ */
 
-    /** Сохранить данные чанка в NBT. */
+    /* биты поля Flags */
+    private static final int F_PVP_SET  = 1;
+    private static final int F_PVP      = 2;
+    private static final int F_EXPL_SET = 4;
+    private static final int F_EXPL     = 8;
+
+    /** Есть ли у чанка хоть один override (иначе хватает ключа в ClaimKeys). */
+    public boolean hasOverrides() {
+        return flags != 0 || playerPerms != null;
+    }
+
+    /**
+     * Сохранить override‑данные чанка в NBT:
+     * {@code Pos} (long), {@code Flags} (битовое поле) и {@code Perms} —
+     * список {@code {U: UUID, M: маска}}.
+     */
     public CompoundTag toNbt() {
         CompoundTag tag = new CompoundTag();
-        tag.putInt("X", pos.x);
-        tag.putInt("Z", pos.z);
-        if (pvpOverride != null) tag.putBoolean("PvP", pvpOverride);
-        if (explosionOverride != null) tag.putBoolean("Explosion", explosionOverride);
-
-        ListTag list = new ListTag();
-        for (var entry : playerPerms.entrySet()) {
-            CompoundTag p = new CompoundTag();
-            p.putUUID("Player", entry.getKey());
-
-            ListTag perms = new ListTag();
-            for (TownPermission tp : entry.getValue())
-                perms.add(StringTag.valueOf(tp.name()));
-            p.put("Perms", perms);
-
-            list.add(p);
+        tag.putLong("Pos", pos.toLong());
+
+        if (flags != 0) tag.putByte("Flags", flags);
+
+        if (playerPerms != null) {
+            ListTag list = new ListTag();
+            for (Object2IntMap.Entry<UUID> entry : playerPerms.object2IntEntrySet()) {
+                CompoundTag p = new CompoundTag();
+                p.putUUID("U", entry.getKey());
+                p.putInt("M", entry.getIntValue());
+                list.add(p);
+            }
+            tag.put("Perms", list);
         }
-        tag.put("PlayerPerms", list);
         return tag;
     }
 
-    /** Загрузить данные чанка из NBT. */
+    /** Загрузить override‑данные чанка из NBT. */
     public static TownChunk fromNbt(CompoundTag tag) {
+        TownChunk tc = new TownChunk(new ChunkPos(tag.getLong("Pos")));
+        tc.flags = tag.getByte("Flags");
+
+        for (Tag t : tag.getList("Perms", Tag.TAG_COMPOUND)) {
+            CompoundTag p = (CompoundTag) t;
+            int mask = p.getInt("M");
+            if (mask != 0) tc.putPerm(p.getUUID("U"), mask);
+        }
+        return tc;
+    }
+
+    /** Старый формат: X/Z, Boolean‑флаги и списки имён прав (только для {@link TownFormat}). */
+    static TownChunk fromLegacyNbt(CompoundTag tag) {
         TownChunk tc = new TownChunk(new ChunkPos(tag.getInt("X"), tag.getInt("Z")));
-        if (tag.contains("PvP")) tc.pvpOverride = tag.getBoolean("PvP");
-        if (tag.contains("Explosion")) tc.explosionOverride = tag.getBoolean("Explosion");
+        if (tag.contains("PvP")) tc.setPvp(tag.getBoolean("PvP"));
+        if (tag.contains("Explosion")) tc.setExplosion(tag.getBoolean("Explosion"));
 
         ListTag list = tag.getList("PlayerPerms", Tag.TAG_COMPOUND);
         for (Tag t : list) {
             CompoundTag p = (CompoundTag) t;
             UUID id = p.getUUID("Player");
 
-            EnumSet<TownPermission> set = EnumSet.noneOf(TownPermission.class);
+            int mask = 0;
             for (Tag s : p.getList("Perms", Tag.TAG_STRING))
-                set.add(TownPermission.valueOf(s.getAsString()));
+                mask |= TownPermission.valueOf(s.getAsString()).bit;
 
-            tc.playerPerms.put(id, set);
+            if (mask != 0) tc.putPerm(id, mask);
         }
         return tc;
     }
@@ -1,18 +1,44 @@
 package org.worldcraft.dominioncraft.town;
 
+import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
 import net.minecraft.nbt.*;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.util.datafix.DataFixTypes;
 import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
 import net.minecraft.world.level.saveddata.SavedData;
+import org.worldcraft.dominioncraft.DominionLevel;
+import org.worldcraft.dominioncraft.hud.HudSync;
+import org.worldcraft.dominioncraft.mixin.DimensionDataStorageAccessor;
 import org.worldcraft.dominioncraft.nation.Nation;
 import org.worldcraft.dominioncraft.nation.NationData;
-
+import org.worldcraft.dominioncraft.storage.DataFormat;
+import org.worldcraft.dominioncraft.storage.Journal;
+import org.worldcraft.dominioncraft.storage.NbtStream;
+import org.worldcraft.dominioncraft.storage.SaveQueue;
+import org.worldcraft.dominioncraft.storage.ShardTownStore;
+import org.worldcraft.dominioncraft.storage.StorageConfig;
+import org.worldcraft.dominioncraft.storage.TownShards;
+import org.worldcraft.dominioncraft.storage.TownStore;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
 
 /**
  * Хранилище всех городов мира (SavedData).
- * Полностью совместимо с Minecraft 1.20.4 (официальные маппинги, Fabric).
+ * Полностью совместимо с Minecraft 1.20.4 (официальные маппинги, Fabric).
+ *
+ * <p>Каждый город лежит в своём шарде ({@link TownShards}) или строке
+ * SQLite — см. {@link TownStore}; автосейв переписывает только города,
+ * отмеченные {@link #markDirty(Town)}.
+ * Между автосейвами изменения дописываются в {@link Journal} и
+ * проигрываются при загрузке, если сервер упал.</p>
  */
 public class TownData extends SavedData {
 
@@ -23,15 +49,64 @@ public class TownData extends SavedData {
     /** Лимит клеймов для одного города. */
     private static final int    MAX_CLAIMS = 64;
 
+    private static final Logger LOGGER = LogUtils.getLogger();
+
     /* ────────────────────────── коллекции ────────────────────────── */
 
     /** id → город. */
     private final Map<UUID, Town>     towns    = new HashMap<>();
-    /** Чанк → id города‑владельца. */
-    private final Map<ChunkPos, UUID> chunkMap = new HashMap<>();
+    /** игрок → город, в котором он состоит (ведут {@link Town#addMember}/{@link Town#removeMember}). */
+    private final Map<UUID, Town>     memberIndex = new HashMap<>();
+    /** {@link #nameKey} → город; гарантирует уникальность имён без учёта регистра. */
+    private final Map<String, Town>   nameIndex   = new HashMap<>();
+
+    /**
+     * Индекс клеймов: чанк → handle города‑владельца, тайлами 32×32
+     * (см. {@link ClaimGrid}); для диких земель — {@link ClaimGrid#NO_TOWN}.
+     */
+    private final ClaimGrid claimGrid = new ClaimGrid();
+    /** handle → город (handle — индекс в этом массиве). */
+    private Town[] byHandle = new Town[16];
+    /** Освободившиеся handle удалённых городов (переиспользуются). */
+    private final IntArrayList freeHandles = new IntArrayList();
+    /** Следующий ещё ни разу не выданный handle. */
+    private int nextHandle = 0;
 
     private ServerLevel cachedLevel = null; // Чтобы получать уровень в методах удаления
 
+    /**
+     * Глобальная эпоха прав: растёт при любом изменении рангов, прав, клеймов
+     * и override. Кэши решений защиты сверяются с ней. Никогда не равна 0.
+     */
+    private static int permissionEpoch = 1;
+
+    /** Измерение, к которому подключено хранилище (см. {@link TownRegistry}). */
+    private ResourceKey<Level> dimension = null;
+
+    /* ── инкрементальное сохранение ── */
+
+    /** Города, чьи шарды нужно переписать. */
+    private final Set<UUID> dirtyTowns   = new HashSet<>();
+    /** Удалённые города, чьи шарды нужно стереть. */
+    private final Set<UUID> removedTowns = new HashSet<>();
+    /** Переписать все шарды (миграция старого формата или «глухой» setDirty()). */
+    private boolean fullRewrite = false;
+    /** Очередь фоновой записи этого хранилища. */
+    private final SaveQueue saveQueue = new SaveQueue(FILE_ID);
+
+    /** Версия формата, которой записан индекс (шарды старее — обновляются при подключении). */
+    private int indexFormat = TownFormat.CHAIN.current();
+
+    /** Backend хранения (шарды или SQLite, см. {@link StorageConfig}). */
+    private TownStore store = null;
+
+    /* ── журнал ── */
+
+    /** Журнал изменений между автосейвами (null — хранилище ещё не подключено). */
+    private Journal journal = null;
+    /** Города, изменённые в текущем тике (запись в журнал — {@link #flushJournal()}). */
+    private final Set<UUID> journalPending = new HashSet<>();
+
     /* ────────────────────────── конструкторы ─────────────────────── */
 
     /** Пустой — нужен, когда файл ещё не создан. */
@@ -39,42 +114,55 @@ public class TownData extends SavedData {
 
     /* ────────────────────────── API (основное) ───────────────────── */
 
-    public Town getTownByName(String name) {
-        for (Town t : towns.values())
-            if (t.getName().equalsIgnoreCase(name)) return t;
-        return null;
-    }
+    public Town getTownByName(String name)        { return nameIndex.get(nameKey(name)); }
+    public boolean isNameTaken(String name)       { return nameIndex.containsKey(nameKey(name)); }
+
+    /** Нормализованный ключ имени (root‑locale lowercase). */
+    public static String nameKey(String name)     { return name.toLowerCase(Locale.ROOT); }
     public Town getTown(UUID id)                  { return towns.get(id); }
     public Map<UUID, Town> getTownMap()           { return towns; }
 
     public Town getTownOfPlayer(UUID player) {
-        for (Town t : towns.values())
-            if (t.getMembers().contains(player)) return t;
-        return null;
+        return memberIndex.get(player);
     }
     public Town getTownByChunk(ChunkPos pos) {
-        UUID id = chunkMap.get(pos);
-        return id == null ? null : towns.get(id);
+        return getTownByChunk(pos.toLong());
+    }
+
+    /**
+     * Город‑владелец чанка по упакованному ключу {@link ChunkPos#asLong(int, int)}.
+     * Не аллоцирует — предназначено для миксинов и событий защиты.
+     */
+    public Town getTownByChunk(long chunkKey) {
+        int handle = claimGrid.get(chunkKey);
+        return handle == ClaimGrid.NO_TOWN ? null : byHandle[handle];
     }
+
+    /** Город по handle (см. {@link ClaimGrid}) или {@code null}. */
+    public Town getTownByHandle(int handle) {
+        return handle >= 0 && handle < byHandle.length ? byHandle[handle] : null;
+    }
+
+    /** Сетка владения (только чтение) — для соседних проверок и контуров карты. */
+    public ClaimGrid getClaimGrid()               { return claimGrid; }
+
+    /** Граничит ли чанк хотя бы одной стороной с территорией города. */
+    public boolean isAdjacentToTown(Town t, ChunkPos pos) {
+        return claimGrid.neighbourMask(pos.x, pos.z, t.getHandle()) != 0;
+    }
+    /** Город из любого измерения (через {@link TownRegistry}). */
     public static Town getServerTown(UUID townId) {
-        net.minecraft.server.MinecraftServer srv =
-                net.fabricmc.loader.api.FabricLoader.getInstance()
-                        .getGameInstance() instanceof net.minecraft.server.MinecraftServer ms ? ms : null;
-        if (srv == null) return null;
-
-        for (net.minecraft.server.level.ServerLevel lvl : srv.getAllLevels()) {
-            Town t = TownData.get(lvl).getTown(townId);
-            if (t != null) return t;
-        }
-        return null;
+        return TownRegistry.get(townId);
     }
 
     /* ── создание / удаление ── */
+    /** @return новый город или {@code null}, если имя уже занято. */
     public Town createTown(String name, UUID mayor, ChunkPos spawn) {
+        if (isNameTaken(name)) return null;
         Town t = new Town(UUID.randomUUID(), name, mayor);
-        towns.put(t.getId(), t);
+        register(t);
         claimChunk(t, spawn);
-        setDirty();
+        markDirty(t);
         return t;
     }
     public void deleteTown(Town t, ServerLevel level) {
@@ -85,131 +173,434 @@ public class TownData extends SavedData {
 
             if (nation != null) {
                 nation.removeTown(t.getId());
-                nd.setDirty();
+                nd.markChanged(nation);
             }
             t.setNation(null);
         }
-        t.allChunks().forEach(c -> chunkMap.remove(c.getPos()));
-        towns.remove(t.getId());
-        setDirty();
+        unregister(t);
+        super.setDirty(true);
     }
     // Старый вариант для обратной совместимости, если нет доступа к уровню (НЕ РЕКОМЕНДУЮ использовать)
     public void deleteTown(Town t) {
-        t.allChunks().forEach(c -> chunkMap.remove(c.getPos()));
-        towns.remove(t.getId());
-        setDirty();
+        unregister(t);
+        super.setDirty(true);
+    }
+
+    /** Переименовать город; {@code false}, если имя занято другим городом. */
+    public boolean renameTown(Town t, String name) {
+        Town other = getTownByName(name);
+        if (other != null && other != t) return false;
+        nameIndex.remove(nameKey(t.getName()), t);
+        t.setName(name);
+        nameIndex.put(nameKey(name), t);
+        markDirty(t);
+        return true;
     }
 
     /* ── claim / unclaim ── */
     public boolean claimChunk(Town t, ChunkPos pos) {
-        if (t.getClaimCount() >= MAX_CLAIMS) return false;
-        if (chunkMap.containsKey(pos))        return false;
+        long key = pos.toLong();
+        if (t.getClaimCount() >= MAX_CLAIMS)   return false;
+        if (!claimGrid.put(key, t.getHandle())) return false;
         t.claim(pos);
-        chunkMap.put(pos, t.getId());
-        setDirty();
+        bumpEpoch();
+        markDirty(t);
         return true;
     }
+    /** Override‑данные чанка изменены командой: убрать пустую запись, сохранить. */
+    public void chunkChanged(Town t, ChunkPos pos) {
+        t.trimChunk(pos);
+        claimGrid.touch(pos.toLong());
+        markDirty(t);
+    }
     public boolean unclaimChunk(Town t, ChunkPos pos) {
         if (!t.owns(pos)) return false;
         t.unclaim(pos);
-        chunkMap.remove(pos);
-        setDirty();
+        claimGrid.remove(pos.toLong());
+        bumpEpoch();
+        markDirty(t);
         return true;
     }
 
-    /* ────────────────────────── SAVE → NBT ───────────────────────── */
+    /* ── handle‑таблица ── */
 
-    @Override
-    public CompoundTag save(CompoundTag tag) {
-        ListTag townList = new ListTag();
-
-        for (Town t : towns.values()) {
-            CompoundTag tc = new CompoundTag();
-            tc.putUUID("Id",   t.getId());
-            tc.putString("Name", t.getName());
-            tc.putUUID("Mayor",  t.getMayor());
-            tc.putBoolean("TownPvP",       t.getTownPvp());
-            tc.putBoolean("TownExplosion", t.getTownExplosion());
-            tc.putBoolean("Open",          t.isOpen());
-
-            // === Сохраняем нацию (если есть) ===
-            if (t.getNation() != null)
-                tc.putUUID("Nation", t.getNation());
-
-            /* участники + ранги */
-            ListTag members = new ListTag();
-            for (UUID p : t.getMembers()) {
-                CompoundTag m = new CompoundTag();
-                m.putUUID("U", p);
-                m.putString("R", t.getRank(p).name());
-                members.add(m);
-            }
-            tc.put("Members", members);
+    /** Выдать городу handle и положить в коллекции (клеймы индексируются отдельно). */
+    private void register(Town t) {
+        int handle = freeHandles.isEmpty() ? nextHandle++ : freeHandles.popInt();
+        if (handle >= byHandle.length)
+            byHandle = Arrays.copyOf(byHandle, byHandle.length * 2);
+        byHandle[handle] = t;
+        t.setHandle(handle);
+        t.setOwner(this);
+        towns.put(t.getId(), t);
+        dirtyTowns.add(t.getId());
+        removedTowns.remove(t.getId());
+        if (dimension != null) TownRegistry.put(t, dimension);
+        bumpEpoch();
+        nameIndex.putIfAbsent(nameKey(t.getName()), t);
+        for (UUID p : t.getMembers()) memberIndex.put(p, t);
+    }
+
+    /** Убрать город и его клеймы из индекса, освободить handle. */
+    private void unregister(Town t) {
+        t.claimKeys().forEach(claimGrid::remove);
+        for (UUID p : t.getMembers()) memberIndex.remove(p, t);
+        nameIndex.remove(nameKey(t.getName()), t);
+        t.setOwner(null);
+        towns.remove(t.getId());
+        dirtyTowns.remove(t.getId());
+        removedTowns.add(t.getId());
+        journalPending.add(t.getId());
+        TownRegistry.remove(t);
+        HudSync.invalidate();
+        byHandle[t.getHandle()] = null;
+        freeHandles.add(t.getHandle());
+        bumpEpoch();
+    }
+
+    /**
+     * Привязать хранилище к уровню: дочитать города из backend'а, проиграть
+     * журнал и внести города в {@link TownRegistry}.
+     */
+    private void attach(ServerLevel level) {
+        File dataFolder = ((DimensionDataStorageAccessor) level.getDataStorage())
+                .dominioncraft$getDataFolder();
+        File shardDir = new File(dataFolder, FILE_ID);
+        boolean migrated = indexFormat < TownFormat.CHAIN.current();
+        if (migrated) {
+            int n = TownShards.migrate(shardDir, TownFormat.CHAIN);
+            LOGGER.info("[DominionCraft] Формат городов {} → {}: обновлено шардов {}",
+                    indexFormat, TownFormat.CHAIN.current(), n);
+        }
+
+        store = StorageConfig.townStore(dataFolder, FILE_ID);
+        loadStore(shardDir);
+        if (migrated) super.setDirty(true);              // переписать индекс с новым штампом
+        journal = new Journal(new File(dataFolder, FILE_ID + ".journal"));
+        replayJournal();
+
+        this.dimension = level.dimension();
+        for (Town t : towns.values()) TownRegistry.put(t, dimension);
+    }
+
+    /* ── эпоха прав ── */
+
+    public static int permissionEpoch() { return permissionEpoch; }
+
+    /** Сбросить все кэши решений защиты. */
+    static void bumpEpoch() {
+        if (++permissionEpoch == 0) permissionEpoch = 1;
+    }
 
-            /* приглашения */
-            ListTag invites = new ListTag();
-            for (UUID p : t.getInvites()) invites.add(NbtUtils.createUUID(p));
-            tc.put("Invites", invites);
+    /* ── индекс участников ── */
 
-            /* клеймы */
-            ListTag claims = new ListTag();
-            for (TownChunk ch : t.allChunks()) claims.add(ch.toNbt());
-            tc.put("Claims", claims);
+    void indexMember(UUID player, Town t)   { memberIndex.put(player, t); }
+    void unindexMember(UUID player, Town t) { memberIndex.remove(player, t); }
 
-            townList.add(tc);
+    /* ────────────────────────── SAVE → диск ──────────────────────── */
+
+    /** Отметить город для записи в ближайшее сохранение. */
+    public void markDirty(Town t) {
+        t.bumpVersion();
+        HudSync.invalidate();
+        dirtyTowns.add(t.getId());
+        journalPending.add(t.getId());
+        super.setDirty(true);
+    }
+
+    /**
+     * Дописать в журнал города, изменённые за тик (вызывается в конце тика
+     * мира). Каждый город кодируется один раз, сколько бы правок ни было.
+     */
+    public void flushJournal() {
+        if (journalPending.isEmpty() || journal == null) return;
+
+        List<Journal.Entry> entries = new ArrayList<>(journalPending.size());
+        for (UUID id : journalPending) {
+            Town t = towns.get(id);
+            entries.add(t == null ? Journal.Entry.del(id) : Journal.Entry.put(id, encodeTown(t)));
+        }
+        journalPending.clear();
+
+        Journal j = journal;
+        saveQueue.enqueue(() -> j.append(entries));
+    }
+
+    /** Без указания города — перезаписать все шарды (на случай внешних изменений). */
+    @Override
+    public void setDirty() {
+        fullRewrite = true;
+        super.setDirty();
+    }
+
+    /**
+     * Пишет шарды только изменённых городов и удаляет шарды удалённых,
+     * затем — маленький индексный файл {@code dominioncraft_towns.dat}.
+     *
+     * <p>На главном потоке собираются только NBT‑снимки; запись на диск
+     * уходит в {@link SaveQueue}.</p>
+     */
+    @Override
+    public void save(File file) {
+        if (!isDirty()) return;
+
+        Collection<UUID> ids = fullRewrite ? towns.keySet() : dirtyTowns;
+        Map<UUID, CompoundTag> writes = new HashMap<>();
+        for (UUID id : ids) {
+            Town t = towns.get(id);
+            if (t != null) writes.put(id, encodeTown(t));
         }
-        tag.put("Towns", townList);
+        List<UUID> deletes = new ArrayList<>(removedTowns);
+
+        CompoundTag index = new CompoundTag();
+        index.put("data", save(new CompoundTag()));
+        NbtUtils.addCurrentDataVersion(index);
+
+        dirtyTowns.clear();
+        removedTowns.clear();
+        journalPending.clear();          // снимок уже содержит эти правки
+        fullRewrite = false;
+        super.setDirty(false);
+
+        Journal j = journal;
+        TownStore s = store;
+        saveQueue.submit(() -> {
+            boolean ok = s.writeTowns(writes, deletes);
+            try {
+                SaveQueue.writeAtomic(file, index);
+                if (ok && j != null) j.reset();     // при ошибке журнал остаётся до следующего раза
+            } catch (IOException e) {
+                LOGGER.error("[DominionCraft] Не удалось сохранить {}", file, e);
+            }
+        });
+    }
+
+    /** Индекс: сами города лежат в шардах. */
+    @Override
+    public CompoundTag save(CompoundTag tag) {
+        TownFormat.CHAIN.stamp(tag);
+        tag.putBoolean("Sharded", true);
+        tag.putInt("Count", towns.size());
         return tag;
     }
 
-    /* ────────────────────────── LOAD ← NBT ───────────────────────── */
+    /** NBT одного города (содержимое шарда). */
+    static CompoundTag encodeTown(Town t) {
+        CompoundTag tc = TownFormat.CHAIN.stamp(new CompoundTag());
+        tc.putUUID("Id",   t.getId());
+        tc.putString("Name", t.getName());
+        tc.putUUID("Mayor",  t.getMayor());
+        tc.putBoolean("TownPvP",       t.getTownPvp());
+        tc.putBoolean("TownExplosion", t.getTownExplosion());
+        tc.putBoolean("Open",          t.isOpen());
+
+        // === Сохраняем нацию (если есть) ===
+        if (t.getNation() != null)
+            tc.putUUID("Nation", t.getNation());
+
+        /* участники + ранги */
+        ListTag members = new ListTag();
+        for (UUID p : t.getMembers()) {
+            CompoundTag m = new CompoundTag();
+            m.putUUID("U", p);
+            m.putString("R", t.getRank(p).name());
+            members.add(m);
+        }
+        tc.put("Members", members);
+
+        /* приглашения */
+        ListTag invites = new ListTag();
+        for (UUID p : t.getInvites()) invites.add(NbtUtils.createUUID(p));
+        tc.put("Invites", invites);
+
+        /* клеймы: простые — одним long[], с override — отдельными записями */
+        LongArrayList plain = new LongArrayList(t.getClaimCount());
+        ListTag overrides = new ListTag();
+        LongIterator it = t.claimKeys().iterator();
+        while (it.hasNext()) {
+            long key = it.nextLong();
+            TownChunk ch = t.chunk(key);
+            if (ch != null && ch.hasOverrides()) overrides.add(ch.toNbt());
+            else                                 plain.add(key);
+        }
+        tc.putLongArray("ClaimKeys", plain.toLongArray());
+        if (!overrides.isEmpty()) tc.put("Overrides", overrides);
+        return tc;
+    }
+
+    /* ────────────────────────── LOAD ← диск ──────────────────────── */
 
+    /**
+     * Индексный файл. Старые миры хранят здесь полный список {@code Towns} —
+     * такие города грузятся и при первом сохранении переезжают в шарды.
+     */
     public static TownData load(CompoundTag tag) {
         TownData d = new TownData();
 
-        for (Tag tt : tag.getList("Towns", Tag.TAG_COMPOUND)) {
-            CompoundTag tc = (CompoundTag) tt;
+        d.indexFormat = DataFormat.versionOf(tag);
+        ListTag legacy = tag.getList("Towns", Tag.TAG_COMPOUND);
+        for (Tag tt : legacy) d.decodeTown((CompoundTag) tt);
+        d.fullRewrite = !legacy.isEmpty();
+        return d;
+    }
 
-            UUID   id  = tc.getUUID("Id");
-            Town t = new Town(id, tc.getString("Name"), tc.getUUID("Mayor"));
+    /**
+     * Загрузить города из backend'а; запись backend'а новее записи из старого
+     * индекса. Пустая SQL‑база один раз заполняется из шардов {@code shardDir}.
+     * Города читаются потоком прямо в индексы, без дерева тегов.
+     */
+    private void loadStore(File shardDir) {
+        int stored = store.loadTowns(this::decodeTown);
+        if (stored == 0 && !(store instanceof ShardTownStore)) {
+            int imported = new ShardTownStore(shardDir).loadTowns(this::decodeTown);
+            if (imported > 0 || !towns.isEmpty()) {
+                LOGGER.info("[DominionCraft] Перенос городов из NBT в новое хранилище");
+                fullRewrite = true;
+            }
+        }
+        dirtyTowns.clear();
+        removedTowns.clear();
+        journalPending.clear();
+        super.setDirty(fullRewrite);
+    }
 
-            if (tc.contains("TownPvP"))       t.setTownPvp(tc.getBoolean("TownPvP"));
-            if (tc.contains("TownExplosion")) t.setTownExplosion(tc.getBoolean("TownExplosion"));
-            if (tc.contains("Open"))          t.setOpen(tc.getBoolean("Open"));
+    /**
+     * Проиграть журнал поверх шардов. Затронутые города остаются грязными —
+     * ближайшее сохранение свернёт журнал в шарды и удалит его.
+     */
+    private void replayJournal() {
+        List<Journal.Entry> entries = journal.read();
+        for (Journal.Entry e : entries) {
+            if (e.op() == Journal.PUT) {
+                decodeTown(e.tag());
+            } else {
+                Town old = towns.get(e.id());
+                if (old != null) unregister(old);
+            }
+        }
+        journalPending.clear();
+        if (!entries.isEmpty()) {
+            LOGGER.info("[DominionCraft] Восстановлено {} записей журнала городов", entries.size());
+            super.setDirty(true);
+        }
+    }
 
-            // === Грузим нацию (если есть) ===
-            if (tc.contains("Nation")) t.setNation(tc.getUUID("Nation"));
+    /** Восстановить город из уже прочитанного NBT (журнал, старый индекс) любой версии. */
+    private void decodeTown(CompoundTag tc) {
+        try (NbtStream in = NbtStream.of(TownFormat.CHAIN.upgrade(tc))) {
+            decodeTown(in);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("[DominionCraft] Не удалось восстановить город", e);
+        }
+    }
 
-            /* участники */
-            for (Tag mm : tc.getList("Members", Tag.TAG_COMPOUND)) {
-                CompoundTag m = (CompoundTag) mm;
-                t.addMember(m.getUUID("U"), TownRank.valueOf(m.getString("R")));
-            }
-            /* инвайты */
-            for (Tag inv : tc.getList("Invites", Tag.TAG_INT_ARRAY))
-                t.addInvite(NbtUtils.loadUUID(inv));
-
-            /* клеймы */
-            for (Tag cc : tc.getList("Claims", Tag.TAG_COMPOUND)) {
-                TownChunk ch = TownChunk.fromNbt((CompoundTag) cc);
-                t.putChunk(ch);
-                d.chunkMap.put(ch.getPos(), id);
+    /**
+     * Прочитать один город текущего формата из потока и зарегистрировать его
+     * вместе с клеймами и участниками. Город с тем же id заменяется. Порядок полей в NBT не
+     * задан, поэтому всё собирается в локальные переменные, а регистрация —
+     * в конце (битый поток не оставляет полуготового города).
+     */
+    private void decodeTown(NbtStream in) throws IOException {
+        UUID id = null, mayor = null, nation = null;
+        String name = "";
+        boolean pvp = false, explosion = false, open = false;
+        List<UUID> members = new ArrayList<>();
+        List<TownRank> ranks = new ArrayList<>();
+        List<UUID> invites = new ArrayList<>();
+        long[] claimKeys = new long[0];
+        List<CompoundTag> overrides = new ArrayList<>();
+
+        in.beginRoot();
+        for (int type; (type = in.nextField()) != Tag.TAG_END; ) {
+            switch (in.name()) {
+                case DataFormat.KEY  -> {
+                    int v = in.readInt();
+                    if (v != TownFormat.CHAIN.current()) throw new IOException("town format " + v);
+                }
+                case "Id"            -> id = in.readUUID();
+                case "Name"          -> name = in.readString();
+                case "Mayor"         -> mayor = in.readUUID();
+                case "Nation"        -> nation = in.readUUID();
+                case "TownPvP"       -> pvp = in.readBoolean();
+                case "TownExplosion" -> explosion = in.readBoolean();
+                case "Open"          -> open = in.readBoolean();
+                case "ClaimKeys"     -> claimKeys = in.readLongArray();
+                case "Members" -> {
+                    for (int n = in.beginList(); n > 0; n--) {
+                        UUID u = null;
+                        TownRank r = TownRank.MEMBER;
+                        for (int ft; (ft = in.nextField()) != Tag.TAG_END; ) {
+                            switch (in.name()) {
+                                case "U" -> u = in.readUUID();
+                                case "R" -> r = TownRank.valueOf(in.readString());
+                                default  -> in.skip(ft);
+                            }
+                        }
+                        if (u != null) { members.add(u); ranks.add(r); }
+                    }
+                }
+                case "Invites" -> {
+                    for (int n = in.beginList(); n > 0; n--) invites.add(in.readUUID());
+                }
+                /* override‑чанки редки — их читаем тегами */
+                case "Overrides" -> {
+                    for (int n = in.beginList(); n > 0; n--) overrides.add(in.readCompound());
+                }
+                default -> in.skip(type);
             }
-
-            d.towns.put(id, t);
         }
-        return d;
+        if (id == null || mayor == null) throw new IOException("town without Id/Mayor");
+
+        Town old = towns.get(id);
+        if (old != null) unregister(old);
+
+        Town t = new Town(id, name, mayor);
+        register(t);
+        t.setTownPvp(pvp);
+        t.setTownExplosion(explosion);
+        t.setOpen(open);
+        if (nation != null) t.setNation(nation);
+
+        for (int i = 0; i < members.size(); i++) t.addMember(members.get(i), ranks.get(i));
+        for (UUID inv : invites) t.addInvite(inv);
+
+        /* чанк, уже занятый другим городом (битые/пересекающиеся данные),
+           не берём — как и claimChunk; город перезапишется без него */
+        int handle = t.getHandle();
+        int dropped = 0;
+        for (long key : claimKeys) {
+            if (!claimGrid.put(key, handle)) { dropped++; continue; }
+            t.claim(key);
+        }
+        for (CompoundTag cc : overrides) {
+            TownChunk ch = TownChunk.fromNbt(cc);
+            if (!claimGrid.put(ch.getPos().toLong(), handle)) { dropped++; continue; }
+            t.putChunk(ch);
+        }
+        if (dropped > 0) {
+            LOGGER.warn("[DominionCraft] Город {} ({}): {} чанк(ов) уже заняты другим городом — пропущены",
+                    name, id, dropped);
+            markDirty(t);
+        }
     }
 
     /* ─────────────────── accessor для мира ─────────────────── */
 
     /**
      * Получить (или создать) экземпляр TownData для данного {@link ServerLevel}.
+     * После первого обращения берётся из поля уровня (см. {@link DominionLevel}).
      */
     public static TownData get(ServerLevel level) {
-        // порядок: (loadFn, constructorFn, fileId)
-        return level.getDataStorage()
-                .computeIfAbsent(TownData::load, TownData::new, FILE_ID);
+        DominionLevel dl = (DominionLevel) level;
+        TownData d = dl.dominioncraft$getTownData();
+        if (d == null) {
+            // порядок: (loadFn, constructorFn, fileId)
+            d = level.getDataStorage()
+                    .computeIfAbsent(TownData::load, TownData::new, FILE_ID);
+            d.attach(level);
+            dl.dominioncraft$setTownData(d);
+        }
+        return d;
     }
 
 }
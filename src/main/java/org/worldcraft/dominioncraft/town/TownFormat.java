@@ -0,0 +1,43 @@
+package org.worldcraft.dominioncraft.town;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import org.worldcraft.dominioncraft.storage.DataFormat;
+
+import java.util.List;
+
+/**
+ * Версии формата города (шард, строка SQL, запись журнала).
+ *
+ * <ol>
+ *   <li>без штампа: клеймы — список {@code Claims} из X/Z‑compound'ов
+ *       с правами строками (или уже {@code ClaimKeys}), флаги необязательны;</li>
+ *   <li>{@code ClaimKeys} + {@code Overrides}, все флаги записаны.</li>
+ * </ol>
+ */
+final class TownFormat {
+
+    static final DataFormat CHAIN = new DataFormat("town", List.of(TownFormat::v1to2));
+
+    private TownFormat() {}
+
+    private static CompoundTag v1to2(CompoundTag tc) {
+        LongArrayList keys = new LongArrayList(tc.getLongArray("ClaimKeys"));
+        ListTag overrides = tc.getList("Overrides", Tag.TAG_COMPOUND);
+
+        for (Tag c : tc.getList("Claims", Tag.TAG_COMPOUND)) {
+            TownChunk ch = TownChunk.fromLegacyNbt((CompoundTag) c);
+            if (ch.hasOverrides()) overrides.add(ch.toNbt());
+            else                   keys.add(ch.getPos().toLong());
+        }
+        tc.remove("Claims");
+        tc.putLongArray("ClaimKeys", keys.toLongArray());
+        if (!overrides.isEmpty()) tc.put("Overrides", overrides);
+
+        for (String flag : new String[] {"TownPvP", "TownExplosion", "Open"})
+            if (!tc.contains(flag)) tc.putBoolean(flag, false);
+        return tc;
+    }
+}
@@ -61,5 +61,20 @@ public enum TownPermission {
 
     CHUNK_EXPLOSION,
 
-    EXPLOSION // право на взрывы
+    EXPLOSION; // право на взрывы
+
+    /** Бит права в масках рангов и чанковых override. */
+    public final int bit;
+
+    TownPermission() { this.bit = 1 << ordinal(); }
+
+    /** Маска из набора прав. */
+    public static int maskOf(TownPermission... perms) {
+        int mask = 0;
+        for (TownPermission p : perms) mask |= p.bit;
+        return mask;
+    }
+
+    /** Маска со всеми правами. */
+    public static final int ALL = (1 << values().length) - 1;
 }
@@ -0,0 +1,57 @@
+package org.worldcraft.dominioncraft.town;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Общий для всего сервера реестр городов: id → город + измерение, в чьём
+ * {@link TownData} он хранится.
+ *
+ * <p>Заполняется, когда {@link TownData} уровня подключается (загрузка мира),
+ * и поддерживается при создании/удалении городов. Поиск по id не зависит от
+ * количества измерений.</p>
+ */
+public final class TownRegistry {
+
+    /** Город и измерение, где он зарегистрирован. */
+    public record Entry(Town town, ResourceKey<Level> dimension) {}
+
+    private static final Map<UUID, Entry> TOWNS = new HashMap<>();
+
+    private TownRegistry() {}
+
+    /* ────────────────────────── чтение ───────────────────────── */
+
+    public static Town get(UUID townId) {
+        Entry e = TOWNS.get(townId);
+        return e == null ? null : e.town();
+    }
+
+    /** Измерение города или {@code null}, если город неизвестен. */
+    public static ResourceKey<Level> dimensionOf(UUID townId) {
+        Entry e = TOWNS.get(townId);
+        return e == null ? null : e.dimension();
+    }
+
+    public static Collection<Entry> all() { return Collections.unmodifiableCollection(TOWNS.values()); }
+
+    /* ────────────────────────── запись ───────────────────────── */
+
+    static void put(Town t, ResourceKey<Level> dimension) {
+        TOWNS.put(t.getId(), new Entry(t, dimension));
+    }
+
+    static void remove(Town t) {
+        Entry e = TOWNS.get(t.getId());
+        if (e != null && e.town() == t) TOWNS.remove(t.getId());
+    }
+
+    /** Сброс при остановке сервера (одиночная игра может запустить новый мир). */
+    public static void clear() { TOWNS.clear(); }
+}